@@ -0,0 +1,375 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Words and score of a board kept up to date as its cells change, see
+ * {@link BoggleSolver#incremental(BoggleBoard)}.
+ *
+ * The solver keeps every path of the board that spells a dictionary prefix, as
+ * a forest: a path is an entry holding its last cell and trie node, whose parent
+ * is the path one cell shorter. The entries are also listed by last cell, and
+ * every dictionary word keeps the number of paths that spell it, so it is on the
+ * board while the count is positive.
+ *
+ * Changing a cell only changes the paths through it. Those are the subtrees of
+ * the entries ending at the cell, which are dropped, and the extensions of the
+ * entries ending next to it, which are grown again with the new letter, so an
+ * update costs the paths through the cell rather than a whole solve. Not thread
+ * safe.
+ */
+public class BoggleIncrementalSolver {
+    private static final int NONE = -1;
+
+    private final BoggleTrie trie;
+    private final int[] scores;
+    private final int rows;
+    private final int cols;
+    private final int[][] adjacency;
+    private final int[] letters;
+    private final boolean[] visited;
+
+    // the path forest: per entry its last cell, trie node, parent, first child and
+    // next sibling, and the previous and next entry ending at the same cell; free
+    // entries are chained through next sibling
+    private int[] cellOf = new int[0];
+    private int[] nodeOf = new int[0];
+    private int[] parentOf = new int[0];
+    private int[] firstChild = new int[0];
+    private int[] nextSibling = new int[0];
+    private int[] prevAt = new int[0];
+    private int[] nextAt = new int[0];
+    private final int[] headAt;
+    private int free = NONE;
+    private int entries;
+
+    // paths spelling every word, the words built so far, and the total score
+    private final int[] paths;
+    private final String[] names;
+    private int score;
+
+    // the words whose count changed during the last update, and whether they
+    // were on the board before it
+    private final int[] stamps;
+    private int generation;
+    private int[] touched = new int[16];
+    private boolean[] before = new boolean[16];
+    private int touchedCount;
+    private final List<String> added = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+
+    // scratch stack of entries, and the first entry ending at every neighbor
+    private int[] stack = new int[16];
+    private final int[] heads = new int[8];
+
+    BoggleIncrementalSolver(BoggleTrie trie, int[] scores, BoggleBoard board) {
+        this.trie = trie;
+        this.scores = scores;
+        this.rows = board.rows();
+        this.cols = board.cols();
+        this.adjacency = BoggleSearch.adjacency(rows, cols);
+        this.letters = new int[rows * cols];
+        this.visited = new boolean[rows * cols];
+        this.headAt = new int[rows * cols];
+        this.paths = new int[trie.wordCount()];
+        this.names = new String[trie.wordCount()];
+        this.stamps = new int[trie.wordCount()];
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                letters[row * cols + col] = letter(board.getLetter(row, col));
+            }
+        }
+        Arrays.fill(headAt, NONE);
+
+        generation++;
+        for (int cell = 0; cell < letters.length; cell++) {
+            grow(NONE, cell);
+        }
+        touchedCount = 0;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public char getLetter(int row, int col) {
+        return (char) ('A' + letters[cell(row, col)]);
+    }
+
+    // the total score of the words of the board
+    public int score() {
+        return score;
+    }
+
+    // the words of the board, once each
+    public List<String> words() {
+        List<String> words = new ArrayList<>();
+        for (int id = 0; id < paths.length; id++) {
+            if (paths[id] > 0) {
+                words.add(names[id]);
+            }
+        }
+        return words;
+    }
+
+    // number of paths of the board spelling a dictionary prefix
+    public int pathCount() {
+        return entries;
+    }
+
+    // a copy of the board
+    public BoggleBoard board() {
+        char[][] board = new char[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                board[row][col] = getLetter(row, col);
+            }
+        }
+        return new BoggleBoard(board);
+    }
+
+    /**
+     * Change the letter of a cell, re-exploring only the paths through it
+     *
+     * @param letter an uppercase letter, Q meaning QU
+     * @return the total score of the board after the change
+     */
+    public int updateCell(int row, int col, char letter) {
+        int cell = cell(row, col);
+        int next = letter(letter);
+
+        added.clear();
+        removed.clear();
+        touchedCount = 0;
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        if (next == letters[cell]) {
+            return score;
+        }
+
+        // drop the paths through cell, no path visits it twice, so the subtrees
+        // of the entries ending there are disjoint
+        while (headAt[cell] != NONE) {
+            cut(headAt[cell]);
+        }
+
+        // grow them back with the new letter: from cell itself, and after every
+        // path ending next to it, none of which goes through cell any more; new
+        // entries are listed first, so the lists as they are now stay unchanged
+        int[] neighbors = adjacency[cell];
+        for (int i = 0; i < neighbors.length; i++) {
+            heads[i] = headAt[neighbors[i]];
+        }
+        letters[cell] = next;
+        grow(NONE, cell);
+        for (int i = 0; i < neighbors.length; i++) {
+            for (int entry = heads[i]; entry != NONE; entry = nextAt[entry]) {
+                // visit the cells of the path, grow, then leave them again
+                for (int e = entry; e != NONE; e = parentOf[e]) {
+                    visited[cellOf[e]] = true;
+                }
+                grow(entry, cell);
+                for (int e = entry; e != NONE; e = parentOf[e]) {
+                    visited[cellOf[e]] = false;
+                }
+            }
+        }
+
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            boolean now = paths[id] > 0;
+            if (now && !before[i]) {
+                added.add(names[id]);
+            } else if (!now && before[i]) {
+                removed.add(names[id]);
+            }
+        }
+        return score;
+    }
+
+    // the words the last updateCell put on the board
+    public List<String> added() {
+        return added;
+    }
+
+    // the words the last updateCell took off the board
+    public List<String> removed() {
+        return removed;
+    }
+
+    // add the paths extending parent (or starting) with cell, and all their
+    // extensions; the cells of parent are visited
+    private void grow(int parent, int cell) {
+        int node = trie.child(parent == NONE ? BoggleTrie.ROOT : nodeOf[parent], letters[cell]);
+        if (node == BoggleTrie.NONE) {
+            return;
+        }
+
+        int entry = allocate(parent, cell, node);
+        count(entry, +1);
+
+        visited[cell] = true;
+        for (int next : adjacency[cell]) {
+            if (!visited[next]) {
+                grow(entry, next);
+            }
+        }
+        visited[cell] = false;
+    }
+
+    // remove entry and all its extensions
+    private void cut(int entry) {
+        int parent = parentOf[entry];
+        if (parent != NONE) {
+            // unlink entry from its siblings
+            if (firstChild[parent] == entry) {
+                firstChild[parent] = nextSibling[entry];
+            } else {
+                int e = firstChild[parent];
+                while (nextSibling[e] != entry) {
+                    e = nextSibling[e];
+                }
+                nextSibling[e] = nextSibling[entry];
+            }
+        }
+
+        int top = 0;
+        stack[top++] = entry;
+        while (top > 0) {
+            int e = stack[--top];
+            for (int child = firstChild[e]; child != NONE; child = nextSibling[child]) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * top);
+                }
+                stack[top++] = child;
+            }
+            count(e, -1);
+            release(e);
+        }
+    }
+
+    private int allocate(int parent, int cell, int node) {
+        if (free == NONE) {
+            int capacity = Math.max(16, 2 * cellOf.length);
+            int from = cellOf.length;
+            cellOf = Arrays.copyOf(cellOf, capacity);
+            nodeOf = Arrays.copyOf(nodeOf, capacity);
+            parentOf = Arrays.copyOf(parentOf, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            prevAt = Arrays.copyOf(prevAt, capacity);
+            nextAt = Arrays.copyOf(nextAt, capacity);
+            for (int e = capacity - 1; e >= from; e--) {
+                nextSibling[e] = free;
+                free = e;
+            }
+        }
+
+        int entry = free;
+        free = nextSibling[entry];
+        entries++;
+
+        cellOf[entry] = cell;
+        nodeOf[entry] = node;
+        parentOf[entry] = parent;
+        firstChild[entry] = NONE;
+        nextSibling[entry] = NONE;
+        if (parent != NONE) {
+            nextSibling[entry] = firstChild[parent];
+            firstChild[parent] = entry;
+        }
+
+        prevAt[entry] = NONE;
+        nextAt[entry] = headAt[cell];
+        if (headAt[cell] != NONE) {
+            prevAt[headAt[cell]] = entry;
+        }
+        headAt[cell] = entry;
+        return entry;
+    }
+
+    private void release(int entry) {
+        int cell = cellOf[entry];
+        if (prevAt[entry] != NONE) {
+            nextAt[prevAt[entry]] = nextAt[entry];
+        } else {
+            headAt[cell] = nextAt[entry];
+        }
+        if (nextAt[entry] != NONE) {
+            prevAt[nextAt[entry]] = prevAt[entry];
+        }
+
+        nextSibling[entry] = free;
+        free = entry;
+        entries--;
+    }
+
+    // count the word entry spells, if any, in (sign +1) or out (sign -1)
+    private void count(int entry, int sign) {
+        int id = trie.wordId(nodeOf[entry]);
+        if (id == BoggleTrie.NONE || trie.wordLength(id) < 3) {
+            return;
+        }
+
+        if (stamps[id] != generation) {
+            stamps[id] = generation;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, 2 * touchedCount);
+                before = Arrays.copyOf(before, 2 * touchedCount);
+            }
+            touched[touchedCount] = id;
+            before[touchedCount++] = paths[id] > 0;
+        }
+        if (names[id] == null) {
+            names[id] = spell(entry);
+        }
+
+        paths[id] += sign;
+        if (sign > 0 && paths[id] == 1) {
+            score += scores[id];
+        } else if (sign < 0 && paths[id] == 0) {
+            score -= scores[id];
+        }
+    }
+
+    // the word spelled by the path of entry
+    private String spell(int entry) {
+        StringBuilder word = new StringBuilder();
+        for (int e = entry; e != NONE; e = parentOf[e]) {
+            int letter = letters[cellOf[e]];
+            if (letter == BoggleSearch.Q) {
+                word.append('U');
+            }
+            word.append((char) ('A' + letter));
+        }
+        return word.reverse().toString();
+    }
+
+    private int cell(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException();
+        }
+        return row * cols + col;
+    }
+
+    private static int letter(char letter) {
+        if (letter < 'A' || letter > 'Z') {
+            throw new IllegalArgumentException("not an uppercase letter: " + letter);
+        }
+        return letter - 'A';
+    }
+}
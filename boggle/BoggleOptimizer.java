@@ -0,0 +1,220 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Searches for boards whose score falls in a target range, or is as high as
+ * possible, by simulated annealing: one cell at a time is given a random
+ * letter, the new board is scored again by {@link BoggleSearch#update}, and
+ * the move is kept if it brings the score closer to the range, or with a
+ * probability that falls as the search cools down. A rejected move only puts
+ * the letter back.
+ *
+ * Independent restarts run in parallel on the common fork-join pool. Restart i
+ * draws its random numbers from a generator seeded from the seed and i alone,
+ * and the best restart, ties going to the lowest i, is the result, so a seed
+ * always gives the same board however the restarts are scheduled.
+ */
+public class BoggleOptimizer {
+    // English letter frequencies, per thousand letters
+    private static final int[] FREQUENCIES = { 82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24, 67, 75, 19, 1, 60,
+            63, 91, 28, 10, 24, 2, 20, 1 };
+    private static final int TOTAL_FREQUENCY = IntStream.of(FREQUENCIES).sum();
+
+    private static final double INITIAL_TEMPERATURE = 4.0;
+    private static final double FINAL_TEMPERATURE = 0.05;
+
+    private final BoggleSolver solver;
+    private final int restarts;
+    private final int steps;
+
+    // boards scored since construction, and the duration and count of the last run
+    private final LongAdder evaluations = new LongAdder();
+    private volatile long lastEvaluations;
+    private volatile long lastNanos;
+
+    /**
+     * @param solver   scores the boards
+     * @param restarts the number of independent annealing runs
+     * @param steps    the number of moves per run
+     */
+    public BoggleOptimizer(BoggleSolver solver, int restarts, int steps) {
+        if (solver == null || restarts <= 0 || steps < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.solver = solver;
+        this.restarts = restarts;
+        this.steps = steps;
+    }
+
+    /**
+     * Search rows by cols boards, starting every run from random letters
+     *
+     * @param minScore the lowest score wanted
+     * @param maxScore the highest score wanted, Integer.MAX_VALUE with minScore
+     *                 to search for the highest score
+     * @param seed     seeds the runs
+     * @return the board closest to the range, and its words and score
+     */
+    public BoggleResult optimize(int rows, int cols, int minScore, int maxScore, long seed) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return optimize(rows, cols, null, minScore, maxScore, seed);
+    }
+
+    /**
+     * Search boards of the shape of initial, starting every run from initial
+     *
+     * @see #optimize(int, int, int, int, long)
+     */
+    public BoggleResult optimize(BoggleBoard initial, int minScore, int maxScore, long seed) {
+        if (initial == null) {
+            throw new IllegalArgumentException();
+        }
+        return optimize(initial.rows(), initial.cols(), initial, minScore, maxScore, seed);
+    }
+
+    // boards scored since construction, moves that keep the letter are not scored
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    // evaluations per second of the last optimize call, across all threads
+    public double evaluationsPerSecond() {
+        long nanos = lastNanos;
+        return nanos == 0 ? 0 : lastEvaluations * 1e9 / nanos;
+    }
+
+    private BoggleResult optimize(int rows, int cols, BoggleBoard initial, int minScore, int maxScore, long seed) {
+        if (minScore > maxScore) {
+            throw new IllegalArgumentException("empty score range");
+        }
+
+        long start = System.nanoTime();
+        long before = evaluations.sum();
+        Run best = IntStream.range(0, restarts).parallel()
+                .mapToObj(i -> anneal(rows, cols, initial, minScore, maxScore, seed, i))
+                .reduce((a, b) -> b.distance < a.distance || b.distance == a.distance && b.restart < a.restart ? b : a)
+                .get();
+        lastNanos = System.nanoTime() - start;
+        lastEvaluations = evaluations.sum() - before;
+
+        return solver.solve(best.board);
+    }
+
+    // one annealing run, returns the best board it met
+    private Run anneal(int rows, int cols, BoggleBoard initial, int minScore, int maxScore, long seed, int restart) {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x9e3779b97f4a7c15L * (restart + 1));
+
+        BoggleBoard board = initial;
+        if (board == null) {
+            char[][] letters = new char[rows][cols];
+            for (int cell = 0; cell < rows * cols; cell++) {
+                letters[cell / cols][cell % cols] = randomLetter(random);
+            }
+            board = new BoggleBoard(letters);
+        }
+
+        BoggleSearch search = solver.newSearch();
+        long distance = distance(search.score(board), minScore, maxScore);
+        long scored = 1;
+        Run best = new Run(restart, search.board(), distance);
+
+        for (int step = 0; step < steps && best.distance > 0; step++) {
+            double temperature = INITIAL_TEMPERATURE
+                    * Math.pow(FINAL_TEMPERATURE / INITIAL_TEMPERATURE, (double) step / steps);
+
+            int cell = random.nextInt(rows * cols);
+            int old = search.letter(cell);
+            int letter = randomLetter(random) - 'A';
+            if (letter == old) {
+                continue;
+            }
+
+            long next = distance(search.update(cell, letter), minScore, maxScore);
+            scored++;
+            if (next <= distance || random.nextDouble() < Math.exp((distance - next) / temperature)) {
+                distance = next;
+                if (distance < best.distance) {
+                    best = new Run(restart, search.board(), distance);
+                }
+            } else {
+                search.set(cell, old);
+            }
+        }
+        evaluations.add(scored);
+
+        return best;
+    }
+
+    // how far score is from [minScore, maxScore]
+    private static long distance(int score, int minScore, int maxScore) {
+        if (score < minScore) {
+            return (long) minScore - score;
+        }
+        if (score > maxScore) {
+            return (long) score - maxScore;
+        }
+        return 0;
+    }
+
+    private static char randomLetter(SplittableRandom random) {
+        int r = random.nextInt(TOTAL_FREQUENCY);
+        int letter = 0;
+        while (r >= FREQUENCIES[letter]) {
+            r -= FREQUENCIES[letter++];
+        }
+        return (char) ('A' + letter);
+    }
+
+    // the best board of a run and its distance to the score range
+    private static final class Run {
+        final int restart;
+        final BoggleBoard board;
+        final long distance;
+
+        Run(int restart, BoggleBoard board, long distance) {
+            this.restart = restart;
+            this.board = board;
+            this.distance = distance;
+        }
+    }
+
+    // args[0] is the dictionary file, args[1] and args[2] the board rows and
+    // columns, args[3] and args[4] the score range, args[5] the optional seed,
+    // args[6] and args[7] the optional number of restarts and steps per restart
+    public static void main(String[] args) {
+        BoggleSolver solver = new BoggleSolver(new In(args[0]).readAllStrings());
+        int rows = Integer.parseInt(args[1]);
+        int cols = Integer.parseInt(args[2]);
+        int minScore = Integer.parseInt(args[3]);
+        int maxScore = Integer.parseInt(args[4]);
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        int restarts = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        int steps = args.length > 7 ? Integer.parseInt(args[7]) : 100_000;
+
+        BoggleOptimizer optimizer = new BoggleOptimizer(solver, restarts, steps);
+        BoggleResult result = optimizer.optimize(rows, cols, minScore, maxScore, seed);
+        BoggleBoard board = result.board();
+        for (int row = 0; row < board.rows(); row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < board.cols(); col++) {
+                line.append(board.getLetter(row, col)).append(' ');
+            }
+            StdOut.println(line.toString().trim());
+        }
+        StdOut.println("score = " + result.score() + ", words = " + result.words().size());
+        StdOut.printf("%d evaluations, %.0f per second%n", optimizer.evaluations(), optimizer.evaluationsPerSecond());
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The words of one board and their total score, see
+ * {@link BoggleSolver#solveAll(Iterable)}.
+ */
+public final class BoggleResult {
+    private final BoggleBoard board;
+    private final List<String> words;
+    private final int score;
+
+    BoggleResult(BoggleBoard board, List<String> words, int score) {
+        this.board = board;
+        this.words = Collections.unmodifiableList(words);
+        this.score = score;
+    }
+
+    // the solved board
+    public BoggleBoard board() {
+        return board;
+    }
+
+    // every valid word of the board, once each
+    public List<String> words() {
+        return words;
+    }
+
+    // the sum of the scores of the words
+    public int score() {
+        return score;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Depth-first search of a board for the words of a trie, with its scratch
+ * state reused from board to board: the board is flattened into one letter per
+ * cell, the neighbors of every cell are one flat array computed once per board
+ * shape, the cells of the current path are bits of a bitset and words are
+ * spelled into one char buffer, so a search allocates only the words it
+ * reports. A neighbor is only called into once the trie has a child for its
+ * letter, and subtrees of the trie whose words all need a letter the board
+ * does not have, or, if the multiplicity check is on, a letter twice that the
+ * board has once, are cut off at their root.
+ *
+ * A word found along several paths is reported once: its id is stamped with the
+ * generation of the search, a counter bumped by every solve, so nothing is
+ * hashed and nothing needs clearing between boards. The board of the last
+ * search stays loaded, and update() changes one of its cells and scores it
+ * again, which is all an annealing step needs. Not thread safe, use one search
+ * per thread.
+ */
+final class BoggleSearch {
+    static final int Q = 'Q' - 'A';
+
+    static final int[][] NEIGHBORS = new int[][] { //
+            { -1, -1 }, { -1, +0 }, { -1, +1 }, //
+            { +0, -1 }, /* { +0, +0 }, */ { +0, +1 }, //
+            { +1, -1 }, { +1, +0 }, { +1, +1 }, //
+    };
+    private static final int MAX_NEIGHBORS = NEIGHBORS.length;
+
+    private final BoggleTrie trie;
+    private final int[] scores;
+    private final int[] stamps;
+    private int generation;
+    private int score;
+    private int rows = -1;
+    private int cols = -1;
+    // the neighbors of cell c are neighbors[MAX_NEIGHBORS * c] on, degree[c] of them
+    private int[] neighbors = new int[0];
+    private int[] degree = new int[0];
+    private int[] letters = new int[0];
+    // the cells of the current path, one bit per cell
+    private long[] visited = new long[0];
+    private char[] word = new char[0];
+    private Collection<String> words;
+    // letters on the board, and letters on at least two of its cells
+    private int present;
+    private int repeated;
+    private boolean multiplicityCheck;
+
+    /**
+     * @param scores the score of every word of trie, by word id
+     */
+    BoggleSearch(BoggleTrie trie, int[] scores) {
+        this.trie = trie;
+        this.scores = scores;
+        this.stamps = new int[trie.wordCount()];
+    }
+
+    /**
+     * Add every word of board to words, once each
+     *
+     * @return the sum of the scores of the words
+     */
+    int solve(BoggleBoard board, Collection<String> words) {
+        return solve(board, 0, board.rows() * board.cols(), words);
+    }
+
+    // also prune the subtrees whose words all need a letter more often than the
+    // board has it, worth it on boards with few repeated letters
+    void setMultiplicityCheck(boolean check) {
+        this.multiplicityCheck = check;
+    }
+
+    // the sum of the scores of the words of board, without building them
+    int score(BoggleBoard board) {
+        return solve(board, null);
+    }
+
+    /**
+     * Add every word of board starting in one of the cells [from, to) to words,
+     * once each, cells numbered row by row
+     *
+     * @param words receives the words; may be null to only score them
+     * @return the sum of the scores of the words
+     */
+    int solve(BoggleBoard board, int from, int to, Collection<String> words) {
+        load(board);
+        if (from < 0 || from > to || to > letters.length) {
+            throw new IllegalArgumentException();
+        }
+        return search(from, to, words);
+    }
+
+    /**
+     * Set one cell of the board of the last search and score the board again,
+     * cells numbered row by row
+     *
+     * @param letter 0 for A to 25 for Z, Q meaning QU
+     * @return the sum of the scores of the words of the new board
+     */
+    int update(int cell, int letter) {
+        set(cell, letter);
+        return search(0, letters.length, null);
+    }
+
+    // set one cell of the board of the last search without scoring it, to undo
+    // an update()
+    void set(int cell, int letter) {
+        if (cell < 0 || cell >= letters.length || letter < 0 || letter >= 26) {
+            throw new IllegalArgumentException();
+        }
+        letters[cell] = letter;
+    }
+
+    // the letter of cell on the board of the last search, 0 for A to 25 for Z
+    int letter(int cell) {
+        return letters[cell];
+    }
+
+    // a copy of the board of the last search
+    BoggleBoard board() {
+        char[][] board = new char[rows][cols];
+        for (int cell = 0; cell < letters.length; cell++) {
+            board[cell / cols][cell % cols] = (char) ('A' + letters[cell]);
+        }
+        return new BoggleBoard(board);
+    }
+
+    private int search(int from, int to, Collection<String> words) {
+        // a new generation unstamps every word, stamps are only cleared on overflow
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        present = 0;
+        repeated = 0;
+        for (int letter : letters) {
+            repeated |= present & 1 << letter;
+            present |= 1 << letter;
+        }
+
+        this.words = words;
+        this.score = 0;
+        try {
+            for (int cell = from; cell < to; cell++) {
+                int node = trie.child(BoggleTrie.ROOT, letters[cell]);
+                if (spellable(node)) {
+                    explore(cell, node, 0);
+                }
+            }
+        } finally {
+            this.words = null;
+        }
+        return score;
+    }
+
+    // flatten board into letters[], resizing the scratch state to its shape
+    private void load(BoggleBoard board) {
+        int rows = board.rows();
+        int cols = board.cols();
+        if (rows != this.rows || cols != this.cols) {
+            int cells = rows * cols;
+            int[][] adjacency = adjacency(rows, cols);
+            this.neighbors = new int[MAX_NEIGHBORS * cells];
+            this.degree = new int[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                degree[cell] = adjacency[cell].length;
+                System.arraycopy(adjacency[cell], 0, neighbors, MAX_NEIGHBORS * cell, degree[cell]);
+            }
+            this.letters = new int[cells];
+            this.visited = new long[(cells + 63) >>> 6];
+            // a QU cell spells two letters
+            this.word = new char[2 * cells];
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char letter = board.getLetter(row, col);
+                if (letter < 'A' || letter > 'Z') {
+                    throw new IllegalArgumentException("not an uppercase letter: " + letter);
+                }
+                letters[row * cols + col] = letter - 'A';
+            }
+        }
+    }
+
+    // can the board spell any word below node ?
+    private boolean spellable(int node) {
+        return node != BoggleTrie.NONE && (trie.required(node) & ~present) == 0
+                && (!multiplicityCheck || (trie.requiredTwice(node) & ~repeated) == 0);
+    }
+
+    // the path ending at cell spells node, a prefix the board may spell, the
+    // trie cursor following one edge per cell, Q standing for QU
+    private void explore(int cell, int node, int length) {
+        int letter = letters[cell];
+        word[length++] = (char) ('A' + letter);
+        if (letter == Q) {
+            word[length++] = 'U';
+        }
+
+        // is word, found for the first time ?
+        int id = trie.wordId(node);
+        if (id != BoggleTrie.NONE && length >= 3 && stamps[id] != generation) {
+            stamps[id] = generation;
+            score += scores[id];
+            if (words != null) {
+                words.add(new String(word, 0, length));
+            }
+        }
+
+        // most neighbors do not extend the prefix, test them before calling in
+        long bit = 1L << cell;
+        visited[cell >>> 6] |= bit;
+        for (int i = MAX_NEIGHBORS * cell, end = i + degree[cell]; i < end; i++) {
+            int next = neighbors[i];
+            if ((visited[next >>> 6] & 1L << next) == 0) {
+                int child = trie.child(node, letters[next]);
+                if (spellable(child)) {
+                    explore(next, child, length);
+                }
+            }
+        }
+        visited[cell >>> 6] &= ~bit;
+    }
+
+    // the neighbors of every cell of a rows by cols board, cells numbered row by row
+    static int[][] adjacency(int rows, int cols) {
+        int[][] adjacency = new int[rows * cols][];
+        int[] buffer = new int[NEIGHBORS.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int n = 0;
+                for (int[] nrowcol : NEIGHBORS) {
+                    int nrow = nrowcol[0] + row;
+                    int ncol = nrowcol[1] + col;
+                    if (nrow >= 0 && nrow < rows && ncol >= 0 && ncol < cols) {
+                        buffer[n++] = nrow * cols + ncol;
+                    }
+                }
+                adjacency[row * cols + col] = Arrays.copyOf(buffer, n);
+            }
+        }
+        return adjacency;
+    }
+}
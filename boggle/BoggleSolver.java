@@ -5,161 +5,288 @@
  * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
  */
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-
-import edu.princeton.cs.algs4.Queue;
-import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.TST;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class BoggleSolver {
 
-    private static int[][] NEIGHBORS = new int[][] { //
-            { -1, -1 }, { -1, +0 }, { -1, +1 }, //
-            { +0, -1 }, /* { +0, +0 }, */ { +0, +1 }, //
-            { +1, -1 }, { +1, +0 }, { +1, +1 }, //
-    };
+    // score by word length, longer words score as 8 letters
+    private static final int[] SCORE = { 0, 0, 0, 1, 1, 2, 3, 5, 11 };
 
-    private static Map<Integer, Integer> SCORE = new HashMap<>() {
-        private static final long serialVersionUID = 1L;
-        {
-            put(0, 0);
-            put(1, 0);
-            put(2, 0);
-            put(3, 1);
-            put(4, 1);
-            put(5, 2);
-            put(6, 3);
-            put(7, 5);
-            put(8, 11);
-        }
-    };
+    private final BoggleTrie dictionary;
 
-    private final TST<Boolean> dictionary = new TST<Boolean>();
+    // the score of every dictionary word, by word id
+    private final int[] scores;
+
+    // one search, and its scratch state, per thread
+    private final ThreadLocal<BoggleSearch> searches;
+    private volatile boolean multiplicityCheck;
 
     // Initializes the data structure using the given array of strings as the
     // dictionary.
     // (You can assume each word in the dictionary contains only the uppercase
     // letters A through Z.)
     public BoggleSolver(String[] dictionary) {
-        for (String word : dictionary) {
-            if (word.length() >= 3) {
-                this.dictionary.put(word, true);
-            }
+        this(new BoggleTrie(dictionary, 3));
+    }
+
+    // Initializes the data structure using a compiled dictionary, for instance
+    // one mapped from an image file by BoggleTrie.load().
+    public BoggleSolver(BoggleTrie dictionary) {
+        if (dictionary == null) {
+            throw new IllegalArgumentException();
+        }
+        this.dictionary = dictionary;
+        this.scores = new int[dictionary.wordCount()];
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = SCORE[Math.min(dictionary.wordLength(id), SCORE.length - 1)];
         }
+        this.searches = ThreadLocal.withInitial(() -> new BoggleSearch(this.dictionary, this.scores));
+    }
+
+    // Also skip the dictionary subtrees whose words all need some letter more
+    // often than the board has it. Off by default.
+    public void setMultiplicityCheck(boolean check) {
+        this.multiplicityCheck = check;
     }
 
     // Returns the score of the given word if it is in the dictionary, zero
     // otherwise.
     // (You can assume the word contains only the uppercase letters A through Z.)
     public int scoreOf(String word) {
-        if (!this.dictionary.contains(word)) {
+        int node = this.dictionary.find(word);
+        if (node == BoggleTrie.NONE || !this.dictionary.isWord(node)) {
             return 0;
         }
 
-        return SCORE.getOrDefault(word.length(), 11);
+        return scores[this.dictionary.wordId(node)];
     }
 
-    // Returns the set of all valid words in the given Boggle board, as an Iterable.
-    public Iterable<String> getAllValidWords(BoggleBoard board) {
-        Set<String> words = new HashSet<>();
+    // Returns the total score of the valid words of the given Boggle board.
+    public int scoreOf(BoggleBoard board) {
+        if (board == null) {
+            throw new IllegalArgumentException();
+        }
 
-        for (int row = 0; row < board.rows(); row++) {
-            for (int col = 0; col < board.cols(); col++) {
-                boolean[][] visited = new boolean[board.rows()][board.cols()];
-                StringBuilder prefix = new StringBuilder();
+        return search().score(board);
+    }
 
-                exploreBoardForWords(board, visited, row, col, prefix, words);
-            }
+    // Returns the set of all valid words in the given Boggle board, as an Iterable.
+    public Iterable<String> getAllValidWords(BoggleBoard board) {
+        if (board == null) {
+            throw new IllegalArgumentException();
         }
 
+        List<String> words = new ArrayList<>();
+        search().solve(board, words);
         return words;
     }
 
-    private void exploreBoardForWords(BoggleBoard board, boolean[][] visited, int row, int col, StringBuilder prefix,
-            Set<String> words) {
+    // Returns the valid words of the given Boggle board and their total score.
+    public BoggleResult solve(BoggleBoard board) {
+        if (board == null) {
+            throw new IllegalArgumentException();
+        }
 
-        // append the new letter
-        char letter = board.getLetter(row, col);
-        prefix.append(letter);
-        if (letter == 'Q') {
-            prefix.append('U');
+        List<String> words = new ArrayList<>();
+        int score = search().solve(board, words);
+        return new BoggleResult(board, words, score);
+    }
+
+    /**
+     * Solve every board of boards on the common fork-join pool, each worker with
+     * its own scratch state. The boards are read, and solved, as the results are
+     * iterated, at most a few per worker ahead of the iteration, so memory stays
+     * bounded however many boards there are.
+     *
+     * @param boards the boards to solve
+     * @return the result of every board, in the order of boards
+     */
+    public Iterable<BoggleResult> solveAll(Iterable<BoggleBoard> boards) {
+        if (boards == null) {
+            throw new IllegalArgumentException();
         }
 
-        // mark the cell as visited
-        visited[row][col] = true;
-//        toString(visited, prefix.toString());
+        return () -> new Iterator<BoggleResult>() {
+            private final Iterator<BoggleBoard> source = boards.iterator();
+            private final Deque<ForkJoinTask<BoggleResult>> pending = new ArrayDeque<>();
+            private final int window = 2 * ForkJoinPool.getCommonPoolParallelism();
 
-        // is word ?
-        if (prefix.length() >= 3) {
-            if (this.dictionary.contains(prefix.toString())) {
-                words.add(prefix.toString());
+            @Override
+            public boolean hasNext() {
+                // keep at most 2 boards per worker in flight
+                while (pending.size() < window && source.hasNext()) {
+                    BoggleBoard board = source.next();
+                    if (board == null) {
+                        throw new IllegalArgumentException();
+                    }
+                    pending.add(ForkJoinPool.commonPool().submit(() -> solve(board)));
+                }
+                return !pending.isEmpty();
             }
+
+            @Override
+            public BoggleResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.remove().join();
+            }
+        };
+    }
+
+    /**
+     * Solve every board of boards as the stream is consumed. The stream keeps
+     * the parallelism of boards: pass boards.parallel() to solve on the common
+     * fork-join pool, each worker with its own scratch state.
+     *
+     * @param boards the boards to solve
+     * @return the result of every board, in the encounter order of boards
+     */
+    public Stream<BoggleResult> solveAll(Stream<BoggleBoard> boards) {
+        if (boards == null) {
+            throw new IllegalArgumentException();
         }
 
-        // is prefix ?
-        Queue<String> wordsWithPrefix = (Queue<String>) this.dictionary.keysWithPrefix(prefix.toString());
-        if (wordsWithPrefix.isEmpty()) {
-//            StdOut.println(prefix + " is a dead end");
-            backtrack(visited, row, col, prefix);
-            return;
+        return boards.map(this::solve);
+    }
+
+    // Returns the words and score of the given Boggle board, kept up to date as
+    // its cells are changed one at a time.
+    public BoggleIncrementalSolver incremental(BoggleBoard board) {
+        if (board == null) {
+            throw new IllegalArgumentException();
         }
 
-        // traverse the neighbors
-        for (int[] nrowcol : NEIGHBORS) {
-            int nrow = nrowcol[0] + row;
-            int ncol = nrowcol[1] + col;
-            if (!isNeighborValid(board, nrow, ncol)) {
-                continue;
-            }
-            if (isNeighborVisited(visited, nrow, ncol)) {
-                continue;
-            }
+        return new BoggleIncrementalSolver(dictionary, scores, board);
+    }
 
-            exploreBoardForWords(board, visited.clone(), nrow, ncol, prefix, words);
+    // Returns a search of its own, set up with the current options, for callers
+    // that keep a board loaded and score it again cell by cell, see
+    // BoggleOptimizer.
+    BoggleSearch newSearch() {
+        BoggleSearch search = new BoggleSearch(dictionary, scores);
+        search.setMultiplicityCheck(multiplicityCheck);
+        return search;
+    }
+
+    // Returns the valid words of the given Boggle board as a lazy stream, each
+    // word searched for only when the stream asks for it, so short-circuiting
+    // operations such as limit() or findFirst() stop the search early.
+    public Stream<String> streamWords(BoggleBoard board) {
+        return streamWords(board, Long.MAX_VALUE);
+    }
+
+    // Same as streamWords(board), the stream ending once budgetNanos have passed
+    // since the call, or once the consuming thread is interrupted.
+    public Stream<String> streamWords(BoggleBoard board, long budgetNanos) {
+        if (board == null || budgetNanos < 0) {
+            throw new IllegalArgumentException();
         }
 
-        backtrack(visited, row, col, prefix);
+        return StreamSupport.stream(
+                new BoggleWordSpliterator(dictionary, scores, board, multiplicityCheck, budgetNanos), false);
     }
 
-    private void backtrack(boolean[][] visited, int row, int col, StringBuilder prefix) {
-        visited[row][col] = false;
-        if (prefix.length() >= 2) {
-            char alc = prefix.charAt(prefix.length() - 2);
-            if (alc == 'Q') {
-                prefix.deleteCharAt(prefix.length() - 1);
+    /**
+     * Pass the valid words of board to sink one at a time, each as soon as it is
+     * first found, until sink returns false, limit words were passed, budgetNanos
+     * have passed or the thread is interrupted
+     *
+     * @param limit       the most words to pass, Integer.MAX_VALUE for all
+     * @param budgetNanos the time allowed, Long.MAX_VALUE for no limit
+     * @return the number of words passed to sink
+     */
+    public int forEachWord(BoggleBoard board, int limit, long budgetNanos, WordSink sink) {
+        if (board == null || sink == null || limit < 0 || budgetNanos < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        BoggleWordSpliterator words = new BoggleWordSpliterator(dictionary, scores, board, multiplicityCheck,
+                budgetNanos);
+        int count = 0;
+        while (count < limit && words.advance()) {
+            count++;
+            if (!sink.accept(words.word(), words.score())) {
+                break;
             }
         }
-        prefix.deleteCharAt(prefix.length() - 1);
+        return count;
     }
 
-    private boolean isNeighborValid(BoggleBoard board, int row, int col) {
-        if (row >= 0 && row < board.rows()) {
-            if (col >= 0 && col < board.cols()) {
-                return true;
-            }
+    // Returns the set of all valid words in the given Boggle board, as an Iterable;
+    // if parallel, the starting cells are split across the common fork-join pool.
+    public Iterable<String> getAllValidWords(BoggleBoard board, boolean parallel) {
+        if (board == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!parallel) {
+            return getAllValidWords(board);
         }
 
-        return false;
+        // a few ranges of starting cells per worker, so busy ranges are balanced
+        int cells = board.rows() * board.cols();
+        int grain = Math.max(1, cells / (4 * ForkJoinPool.getCommonPoolParallelism()));
+        return ForkJoinPool.commonPool().invoke(new SolveTask(board, 0, cells, grain));
     }
 
-    private boolean isNeighborVisited(boolean[][] boardVisits, int row, int col) {
-        return boardVisits[row][col] == true;
-    }
+    // the words starting in cells [from, to), each worker searching with its own
+    // scratch state into its own set, the sets merged as the tasks join
+    private final class SolveTask extends RecursiveTask<Set<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final BoggleBoard board;
+        private final int from;
+        private final int to;
+        private final int grain;
 
-    private void toString(boolean[][] boardVisits, String prefix) {
-        StdOut.println("-----------------\n" + prefix);
-        int rows = boardVisits.length;
-        int cols = boardVisits[0].length;
+        SolveTask(BoggleBoard board, int from, int to, int grain) {
+            this.board = board;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
 
-        for (int row = 0; row < rows; row++) {
-            StringBuilder line = new StringBuilder();
-            for (int col = 0; col < cols; col++) {
-                line.append(boardVisits[row][col] ? "x " : "o ");
+        @Override
+        protected Set<String> compute() {
+            if (to - from <= grain) {
+                Set<String> words = new HashSet<>();
+                search().solve(board, from, to, words);
+                return words;
             }
-            StdOut.println(line.toString());
+
+            int mid = (from + to) >>> 1;
+            SolveTask left = new SolveTask(board, from, mid, grain);
+            left.fork();
+            Set<String> right = new SolveTask(board, mid, to, grain).compute();
+            Set<String> words = left.join();
+
+            // merge the smaller set into the larger
+            if (words.size() < right.size()) {
+                Set<String> swap = words;
+                words = right;
+                right = swap;
+            }
+            words.addAll(right);
+            return words;
         }
     }
+
+    // this thread's search, set up with the current options
+    private BoggleSearch search() {
+        BoggleSearch search = searches.get();
+        search.setMultiplicityCheck(multiplicityCheck);
+        return search;
+    }
 }
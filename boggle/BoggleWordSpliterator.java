@@ -0,0 +1,235 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The words of a board, found lazily: the depth-first search of
+ * {@link BoggleSearch} runs on an explicit stack of cells, so it can stop after
+ * any word and resume from there on the next call. A word is emitted the first
+ * time one of its paths is found, later paths are skipped by a bit per word id.
+ *
+ * Besides the letters, a byte per cell, and that bit per word, the state is
+ * only the stack, as deep as the longest word, so memory does not grow with
+ * the number of words found; neighbors are computed as they are needed, not
+ * tabled per board. The search stops early once its time budget is spent or
+ * its thread is interrupted, both checked every few thousand steps. Not thread
+ * safe, and does not split.
+ */
+final class BoggleWordSpliterator implements Spliterator<String> {
+    // steps between two checks of the time budget and the interrupt flag
+    private static final int CHECK_INTERVAL = 4096;
+    // neighbor() past an edge of the board, and past the last neighbor
+    private static final int OFF_BOARD = -1;
+    private static final int NO_MORE = -2;
+
+    private final BoggleTrie trie;
+    private final int[] scores;
+    private final int rows;
+    private final int cols;
+    private final byte[] letters;
+    private final boolean[] visited;
+    private final long[] seen;
+    // letters on the board, and letters on at least two of its cells
+    private int present;
+    private int repeated;
+    private final boolean multiplicityCheck;
+
+    // the stack: per depth the cell, its trie node, the next neighbor to try and
+    // the length of the word so far
+    private int[] cellAt = new int[16];
+    private int[] nodeAt = new int[16];
+    private int[] nextAt = new int[16];
+    private int[] lengthAt = new int[16];
+    private char[] word = new char[32];
+    private int depth;
+    private int start;
+
+    private final long begin;
+    private final long budgetNanos;
+    private int steps;
+    private boolean done;
+
+    // the last word found, and its id
+    private String current;
+    private int currentId = BoggleTrie.NONE;
+
+    /**
+     * @param scores      the score of every word of trie, by word id
+     * @param budgetNanos time after which the search stops, Long.MAX_VALUE for none
+     */
+    BoggleWordSpliterator(BoggleTrie trie, int[] scores, BoggleBoard board, boolean multiplicityCheck,
+            long budgetNanos) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.begin = System.nanoTime();
+        this.budgetNanos = budgetNanos;
+        this.trie = trie;
+        this.scores = scores;
+        this.multiplicityCheck = multiplicityCheck;
+        this.rows = board.rows();
+        this.cols = board.cols();
+        this.letters = new byte[rows * cols];
+        this.visited = new boolean[rows * cols];
+        this.seen = new long[(trie.wordCount() + 63) >>> 6];
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char letter = board.getLetter(row, col);
+                if (letter < 'A' || letter > 'Z') {
+                    throw new IllegalArgumentException("not an uppercase letter: " + letter);
+                }
+                letters[row * cols + col] = (byte) (letter - 'A');
+                int bit = 1 << (letter - 'A');
+                repeated |= present & bit;
+                present |= bit;
+            }
+        }
+    }
+
+    /**
+     * Search on up to the next word not found before
+     *
+     * @return false once the board is exhausted, the budget spent or the
+     *         thread interrupted
+     */
+    boolean advance() {
+        while (!done) {
+            if (++steps == CHECK_INTERVAL) {
+                steps = 0;
+                if (System.nanoTime() - begin > budgetNanos || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+
+            boolean found;
+            if (depth == 0) {
+                // every path from the previous cell is done, start from the next
+                if (start == letters.length) {
+                    break;
+                }
+                found = enter(start++, BoggleTrie.ROOT, 0);
+            } else {
+                int top = depth - 1;
+                int cell = cellAt[top];
+                int next = neighbor(cell, nextAt[top]++);
+                if (next == NO_MORE) {
+                    // every extension of the path is done
+                    visited[cell] = false;
+                    depth--;
+                    continue;
+                }
+                found = next != OFF_BOARD && !visited[next] && enter(next, nodeAt[top], lengthAt[top]);
+            }
+            if (found) {
+                return true;
+            }
+        }
+
+        done = true;
+        current = null;
+        currentId = BoggleTrie.NONE;
+        return false;
+    }
+
+    // the last word found by advance()
+    String word() {
+        return current;
+    }
+
+    // the score of the last word found by advance()
+    int score() {
+        return scores[currentId];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (!advance()) {
+            return false;
+        }
+        action.accept(current);
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        // the bits of the words found are shared by every starting cell
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+
+    // push cell onto the path if it spells a prefix some word below can use,
+    // returns whether the path spells a word not found before
+    private boolean enter(int cell, int parent, int length) {
+        int letter = letters[cell];
+        int node = trie.child(parent, letter);
+        if (node == BoggleTrie.NONE) {
+            return false;
+        }
+        if ((trie.required(node) & ~present) != 0) {
+            return false;
+        }
+        if (multiplicityCheck && (trie.requiredTwice(node) & ~repeated) != 0) {
+            return false;
+        }
+
+        if (depth == cellAt.length) {
+            cellAt = Arrays.copyOf(cellAt, 2 * depth);
+            nodeAt = Arrays.copyOf(nodeAt, 2 * depth);
+            nextAt = Arrays.copyOf(nextAt, 2 * depth);
+            lengthAt = Arrays.copyOf(lengthAt, 2 * depth);
+        }
+        if (length + 2 > word.length) {
+            word = Arrays.copyOf(word, 2 * word.length);
+        }
+
+        word[length++] = (char) ('A' + letter);
+        if (letter == BoggleSearch.Q) {
+            word[length++] = 'U';
+        }
+        cellAt[depth] = cell;
+        nodeAt[depth] = node;
+        nextAt[depth] = 0;
+        lengthAt[depth] = length;
+        depth++;
+        visited[cell] = true;
+
+        int id = trie.wordId(node);
+        if (id == BoggleTrie.NONE || length < 3 || (seen[id >>> 6] & 1L << id) != 0) {
+            return false;
+        }
+        seen[id >>> 6] |= 1L << id;
+        current = new String(word, 0, length);
+        currentId = id;
+        return true;
+    }
+
+    // the i-th neighbor of cell, OFF_BOARD past an edge, NO_MORE past the last
+    private int neighbor(int cell, int i) {
+        if (i == BoggleSearch.NEIGHBORS.length) {
+            return NO_MORE;
+        }
+        int row = cell / cols + BoggleSearch.NEIGHBORS[i][0];
+        int col = cell % cols + BoggleSearch.NEIGHBORS[i][1];
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return OFF_BOARD;
+        }
+        return row * cols + col;
+    }
+}
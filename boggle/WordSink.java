@@ -0,0 +1,22 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+/**
+ * Receives the words of a board one at a time, as the search first finds them,
+ * see {@link BoggleSolver#forEachWord(BoggleBoard, int, long, WordSink)}.
+ * Called on the thread enumerating the words.
+ */
+public interface WordSink {
+    /**
+     * Called once per word of the board
+     *
+     * @param word  the word, QU spelled out
+     * @param score the score of the word
+     * @return false to stop the enumeration
+     */
+    boolean accept(String word, int score);
+}
@@ -0,0 +1,93 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Changes random cells of random boards and checks the words, score, added()
+ * and removed() of the incremental solver after every change against a brute
+ * force search of the new board. Compiled with the boggle sources and run with
+ * java BoggleIncrementalSolverTest; throws AssertionError on the first failure.
+ */
+public class BoggleIncrementalSolverTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(6);
+        for (int i = 0; i < 20; i++) {
+            int rows = 1 + random.nextInt(4);
+            int cols = 1 + random.nextInt(5);
+            String[] dictionary = BoggleSolverTest.dictionary(random, 3_000);
+            BoggleSolver solver = new BoggleSolver(dictionary);
+
+            char[][] letters = BoggleSolverTest.board(random, rows, cols);
+            BoggleIncrementalSolver state = solver.incremental(new BoggleBoard(letters));
+            Set<String> words = BoggleSolverTest.bruteForce(dictionary, letters);
+            check(solver, state, letters, words, "initial board");
+
+            for (int k = 0; k < 100; k++) {
+                int row = random.nextInt(rows);
+                int col = random.nextInt(cols);
+                // a few updates keep the letter
+                char letter = random.nextInt(10) == 0 ? letters[row][col]
+                        : BoggleSolverTest.DICE.charAt(random.nextInt(BoggleSolverTest.DICE.length()));
+                letters[row][col] = letter;
+                int score = state.updateCell(row, col, letter);
+
+                Set<String> next = BoggleSolverTest.bruteForce(dictionary, letters);
+                Set<String> added = new TreeSet<>(next);
+                added.removeAll(words);
+                Set<String> removed = new TreeSet<>(words);
+                removed.removeAll(next);
+                String what = "update " + k + " of board " + i;
+                if (!once(state.added()).equals(added) || !once(state.removed()).equals(removed)) {
+                    throw new AssertionError(what + ": added " + state.added() + ", removed " + state.removed()
+                            + ", expected " + added + " and " + removed);
+                }
+                if (score != state.score()) {
+                    throw new AssertionError(what + ": updateCell returned " + score + ", score() " + state.score());
+                }
+                words = next;
+                check(solver, state, letters, words, what);
+            }
+        }
+        StdOut.println("BoggleIncrementalSolverTest passed");
+    }
+
+    private static void check(BoggleSolver solver, BoggleIncrementalSolver state, char[][] letters,
+            Set<String> expected, String what) {
+        int score = 0;
+        for (String word : expected) {
+            score += solver.scoreOf(word);
+        }
+        if (!once(state.words()).equals(expected) || state.score() != score) {
+            throw new AssertionError(what + ": words " + state.words() + " scoring " + state.score() + ", expected "
+                    + expected + " scoring " + score);
+        }
+        for (int row = 0; row < letters.length; row++) {
+            for (int col = 0; col < letters[0].length; col++) {
+                if (state.getLetter(row, col) != letters[row][col]
+                        || state.board().getLetter(row, col) != letters[row][col]) {
+                    throw new AssertionError(what + ": letter at " + row + ", " + col);
+                }
+            }
+        }
+    }
+
+    // the words as a sorted set, each listed once
+    private static Set<String> once(List<String> words) {
+        if (new HashSet<>(words).size() != words.size()) {
+            throw new AssertionError("a word listed twice: " + words);
+        }
+        return new TreeSet<>(words);
+    }
+}
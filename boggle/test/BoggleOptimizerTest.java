@@ -0,0 +1,70 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks that the optimizer is reproducible from its seed, reaches reachable
+ * score ranges, returns the solver's result for its board, and counts only the
+ * boards it scored. Compiled with the boggle sources and run with java
+ * BoggleOptimizerTest; throws AssertionError on the first failure.
+ */
+public class BoggleOptimizerTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(8);
+        BoggleSolver solver = new BoggleSolver(BoggleSolverTest.dictionary(random, 20_000));
+
+        // the highest score found grows with the steps, and a seed gives one board
+        BoggleOptimizer optimizer = new BoggleOptimizer(solver, 3, 2_000);
+        BoggleResult first = optimizer.optimize(4, 4, Integer.MAX_VALUE, Integer.MAX_VALUE, 42);
+        BoggleResult again = optimizer.optimize(4, 4, Integer.MAX_VALUE, Integer.MAX_VALUE, 42);
+        if (!same(first.board(), again.board()) || first.score() != again.score()) {
+            throw new AssertionError("the same seed gave another board");
+        }
+        if (first.score() != solver.scoreOf(first.board())) {
+            throw new AssertionError("result score " + first.score() + ", board score "
+                    + solver.scoreOf(first.board()));
+        }
+        // every run scores its initial board and at most one board per step
+        if (optimizer.evaluations() > 2 * 3 * (2_000 + 1) || optimizer.evaluations() < 2 * 3) {
+            throw new AssertionError(optimizer.evaluations() + " evaluations");
+        }
+
+        // a range around a random board's score is reached
+        BoggleBoard start = new BoggleBoard(BoggleSolverTest.board(random, 4, 4));
+        int target = first.score() / 2;
+        BoggleResult ranged = new BoggleOptimizer(solver, 2, 20_000).optimize(start, target, target + 2, 7);
+        if (ranged.score() < target || ranged.score() > target + 2) {
+            throw new AssertionError("score " + ranged.score() + " outside [" + target + ", " + (target + 2) + "]");
+        }
+
+        // a board already in range is returned without a move
+        BoggleOptimizer idle = new BoggleOptimizer(solver, 1, 1_000);
+        BoggleResult unchanged = idle.optimize(start, 0, Integer.MAX_VALUE, 1);
+        if (!same(unchanged.board(), start) || idle.evaluations() != 1) {
+            throw new AssertionError("a board in range was changed, " + idle.evaluations() + " evaluations");
+        }
+        StdOut.println("BoggleOptimizerTest passed");
+    }
+
+    private static boolean same(BoggleBoard a, BoggleBoard b) {
+        if (a.rows() != b.rows() || a.cols() != b.cols()) {
+            return false;
+        }
+        for (int row = 0; row < a.rows(); row++) {
+            for (int col = 0; col < a.cols(); col++) {
+                if (a.getLetter(row, col) != b.getLetter(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks BoggleSolver against a brute force search of every path of random
+ * boards, and scoreOf() of single words, Q words included. Compiled with the
+ * boggle sources and run with java BoggleSolverTest; throws AssertionError on
+ * the first failure.
+ */
+public class BoggleSolverTest {
+    // letters weighted roughly as on Boggle dice
+    static final String DICE = "EEEEEEEEEEEETTTTTTTTTAAAAAAAAOOOOOOOIIIIIIINNNNNNNSSSSSSHHHHHHRRRRRRDDDDLLLLUUUCCCMMMWWFFGGYYPPBVKJXQZ";
+
+    public static void main(String[] args) {
+        checkScoreOfWords();
+
+        Random random = new Random(4);
+        for (int i = 0; i < 20; i++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = 1 + random.nextInt(5);
+            String[] dictionary = dictionary(random, 3_000);
+            BoggleSolver solver = new BoggleSolver(dictionary);
+            for (int k = 0; k < 10; k++) {
+                char[][] letters = board(random, rows, cols);
+                check(solver, dictionary, letters);
+            }
+            checkSolveAll(solver, random, rows, cols);
+            checkUpdates(solver, random, rows, cols);
+        }
+        StdOut.println("BoggleSolverTest passed");
+    }
+
+    private static void checkScoreOfWords() {
+        String[] dictionary = { "AT", "CAT", "QUA", "QAT", "QI", "QUIT", "QUITE", "QATS", "FAQ", "TRANQUIL",
+                "NIQAB", "ABSTRACT", "CATS" };
+        BoggleSolver solver = new BoggleSolver(dictionary);
+        assertScore(solver, "AT", 0);
+        assertScore(solver, "CAT", 1);
+        assertScore(solver, "CATS", 1);
+        assertScore(solver, "CA", 0);
+        assertScore(solver, "DOG", 0);
+        assertScore(solver, "QUA", 1);
+        assertScore(solver, "QUIT", 1);
+        assertScore(solver, "QUITE", 2);
+        assertScore(solver, "TRANQUIL", 11);
+        assertScore(solver, "ABSTRACT", 11);
+        // a Q without U is not on any board, but still a dictionary word
+        assertScore(solver, "QAT", 1);
+        assertScore(solver, "QATS", 1);
+        assertScore(solver, "FAQ", 1);
+        assertScore(solver, "NIQAB", 2);
+        assertScore(solver, "QI", 0);
+        assertScore(solver, "QA", 0);
+        assertScore(solver, "QUAT", 0);
+
+        // no cell spells a bare Q, the Q cell reads QU
+        BoggleBoard board = new BoggleBoard(new char[][] { { 'Q', 'A', 'T' }, { 'F', 'A', 'S' } });
+        Set<String> words = set(solver.getAllValidWords(board));
+        if (!words.equals(Set.of("QUA"))) {
+            throw new AssertionError("words of the Q board: " + words);
+        }
+    }
+
+    private static void assertScore(BoggleSolver solver, String word, int expected) {
+        if (solver.scoreOf(word) != expected) {
+            throw new AssertionError("scoreOf(" + word + ") = " + solver.scoreOf(word) + ", expected " + expected);
+        }
+    }
+
+    private static void check(BoggleSolver solver, String[] dictionary, char[][] letters) {
+        BoggleBoard board = new BoggleBoard(letters);
+        Set<String> expected = bruteForce(dictionary, letters);
+        int score = 0;
+        for (String word : expected) {
+            score += solver.scoreOf(word);
+        }
+
+        List<String> words = new ArrayList<>();
+        solver.getAllValidWords(board).forEach(words::add);
+        if (words.size() != new HashSet<>(words).size()) {
+            throw new AssertionError("a word reported twice");
+        }
+        if (!set(words).equals(expected)) {
+            throw new AssertionError("words " + set(words) + ", expected " + expected);
+        }
+        if (!set(solver.getAllValidWords(board, true)).equals(expected)) {
+            throw new AssertionError("parallel words differ");
+        }
+        BoggleResult result = solver.solve(board);
+        if (solver.scoreOf(board) != score || result.score() != score || !set(result.words()).equals(expected)) {
+            throw new AssertionError("score " + solver.scoreOf(board) + ", expected " + score);
+        }
+    }
+
+    // the batch APIs give the results of solve(), in order, sequential or not
+    private static void checkSolveAll(BoggleSolver solver, Random random, int rows, int cols) {
+        List<BoggleBoard> boards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            boards.add(new BoggleBoard(board(random, rows, cols)));
+        }
+        List<Integer> expected = boards.stream().map(b -> solver.solve(b).score()).collect(Collectors.toList());
+
+        List<Integer> iterated = new ArrayList<>();
+        solver.solveAll(boards).forEach(result -> iterated.add(result.score()));
+        List<Integer> sequential = solver.solveAll(boards.stream()).map(BoggleResult::score)
+                .collect(Collectors.toList());
+        List<Integer> parallel = solver.solveAll(boards.stream().parallel()).map(BoggleResult::score)
+                .collect(Collectors.toList());
+        if (!iterated.equals(expected) || !sequential.equals(expected) || !parallel.equals(expected)) {
+            throw new AssertionError("solveAll scores differ from solve");
+        }
+        if (solver.solveAll(boards.stream()).isParallel()) {
+            throw new AssertionError("solveAll made a sequential stream parallel");
+        }
+    }
+
+    // the cell by cell rescoring of the optimizer agrees with the solver
+    private static void checkUpdates(BoggleSolver solver, Random random, int rows, int cols) {
+        char[][] letters = board(random, rows, cols);
+        // the search keeps the options of the solver, the pruning changes no score
+        solver.setMultiplicityCheck(random.nextBoolean());
+        BoggleSearch search = solver.newSearch();
+        search.score(new BoggleBoard(letters));
+        for (int k = 0; k < 50; k++) {
+            int cell = random.nextInt(rows * cols);
+            char letter = DICE.charAt(random.nextInt(DICE.length()));
+            letters[cell / cols][cell % cols] = letter;
+            int score = search.update(cell, letter - 'A');
+            int expected = solver.scoreOf(new BoggleBoard(letters));
+            if (search.letter(cell) != letter - 'A' || score != expected) {
+                throw new AssertionError("update gives " + score + ", expected " + expected);
+            }
+        }
+        BoggleBoard board = search.board();
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (board.getLetter(cell / cols, cell % cols) != letters[cell / cols][cell % cols]) {
+                throw new AssertionError("search board differs at cell " + cell);
+            }
+        }
+    }
+
+    // every word of dictionary spelled by some path of letters, Q reading QU
+    static Set<String> bruteForce(String[] dictionary, char[][] letters) {
+        Set<String> words = new HashSet<>();
+        Set<String> prefixes = new HashSet<>();
+        for (String word : dictionary) {
+            if (word.length() >= 3) {
+                words.add(word);
+                for (int i = 1; i <= word.length(); i++) {
+                    prefixes.add(word.substring(0, i));
+                }
+            }
+        }
+
+        Set<String> found = new TreeSet<>();
+        boolean[][] visited = new boolean[letters.length][letters[0].length];
+        for (int row = 0; row < letters.length; row++) {
+            for (int col = 0; col < letters[0].length; col++) {
+                dfs(letters, visited, row, col, "", words, prefixes, found);
+            }
+        }
+        return found;
+    }
+
+    private static void dfs(char[][] letters, boolean[][] visited, int row, int col, String prefix, Set<String> words,
+            Set<String> prefixes, Set<String> found) {
+        if (row < 0 || col < 0 || row >= letters.length || col >= letters[0].length || visited[row][col]) {
+            return;
+        }
+        String word = prefix + (letters[row][col] == 'Q' ? "QU" : String.valueOf(letters[row][col]));
+        if (!prefixes.contains(word)) {
+            return;
+        }
+        if (words.contains(word)) {
+            found.add(word);
+        }
+        visited[row][col] = true;
+        for (int drow = -1; drow <= 1; drow++) {
+            for (int dcol = -1; dcol <= 1; dcol++) {
+                dfs(letters, visited, row + drow, col + dcol, word, words, prefixes, found);
+            }
+        }
+        visited[row][col] = false;
+    }
+
+    // random words of the dice letters, many with QU and some with a bare Q
+    static String[] dictionary(Random random, int n) {
+        String[] words = new String[n];
+        for (int i = 0; i < n; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int k = 1 + random.nextInt(7); k > 0; k--) {
+                char c = DICE.charAt(random.nextInt(DICE.length()));
+                word.append(c);
+                if (c == 'Q' && random.nextInt(4) != 0) {
+                    word.append('U');
+                }
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    static char[][] board(Random random, int rows, int cols) {
+        char[][] letters = new char[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                letters[row][col] = DICE.charAt(random.nextInt(DICE.length()));
+            }
+        }
+        return letters;
+    }
+
+    private static Set<String> set(Iterable<String> words) {
+        Set<String> set = new TreeSet<>();
+        words.forEach(set::add);
+        return set;
+    }
+}
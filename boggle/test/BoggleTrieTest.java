@@ -0,0 +1,129 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks that a trie written to an image and loaded back is the trie that was
+ * written, and solves boards the same, and that damaged images are rejected.
+ * Compiled with the boggle sources and run with java BoggleTrieTest; throws
+ * AssertionError on the first failure.
+ */
+public class BoggleTrieTest {
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(5);
+        Path image = Files.createTempFile("boggle", ".bgt");
+        try {
+            for (int i = 0; i < 10; i++) {
+                String[] dictionary = BoggleSolverTest.dictionary(random, 1 + random.nextInt(5_000));
+                BoggleTrie trie = new BoggleTrie(dictionary, 3);
+                trie.write(image);
+                BoggleTrie loaded = BoggleTrie.load(image);
+                assertSame(trie, loaded, dictionary);
+
+                BoggleSolver solver = new BoggleSolver(trie);
+                BoggleSolver fromImage = new BoggleSolver(loaded);
+                for (int k = 0; k < 20; k++) {
+                    BoggleBoard board = new BoggleBoard(BoggleSolverTest.board(random, 4, 4));
+                    if (solver.scoreOf(board) != fromImage.scoreOf(board)) {
+                        throw new AssertionError("the loaded trie scores a board differently");
+                    }
+                }
+            }
+            checkCorruptImages(image);
+        } finally {
+            Files.delete(image);
+        }
+        StdOut.println("BoggleTrieTest passed");
+    }
+
+    // every damaged field fails the load with IllegalArgumentException
+    private static void checkCorruptImages(Path image) throws IOException {
+        String[] dictionary = { "CAT", "CATS", "QUIT", "QAT", "DOG", "DOGS", "ABSTRACT" };
+        BoggleTrie trie = new BoggleTrie(dictionary, 3);
+        trie.write(image);
+        byte[] bytes = Files.readAllBytes(image);
+        int nodes = BoggleTrie.HEADER_LENGTH;
+        int lengths = nodes + Integer.BYTES * BoggleTrie.NODE_INTS * trie.size();
+        int node = trie.find("CAT");
+
+        expectCorrupt(image, bytes, 0, 0x12345678, "magic");
+        expectCorrupt(image, bytes, 4, BoggleTrie.VERSION - 1, "version");
+        expectCorrupt(image, bytes, 12, trie.size() + 1, "node count");
+        expectCorrupt(image, bytes, 12, Integer.MAX_VALUE / 2, "overflowing node count");
+        expectCorrupt(image, bytes, 16, trie.wordCount() + 1, "word count");
+        expectCorrupt(image, bytes, nodes, 1 << 29, "letter mask");
+        expectCorrupt(image, bytes, nodes + 4, 0, "first child");
+        expectCorrupt(image, bytes, nodes + 4, trie.size(), "first child past the end");
+        expectCorrupt(image, bytes, nodes + Integer.BYTES * (BoggleTrie.NODE_INTS * node + 2), trie.wordCount(),
+                "word id");
+        expectCorrupt(image, bytes, nodes + Integer.BYTES * (BoggleTrie.NODE_INTS * node + 2), BoggleTrie.NONE,
+                "missing word id");
+        expectCorrupt(image, bytes, lengths, -1, "negative word length");
+        expectCorrupt(image, bytes, lengths, 0, "empty word");
+        expectCorrupt(image, bytes, lengths + 4, Integer.MAX_VALUE, "word length");
+
+        Files.write(image, Arrays.copyOf(bytes, bytes.length - 1));
+        expectCorrupt(image, "truncated image");
+    }
+
+    // image with the int at offset replaced by value
+    private static void expectCorrupt(Path image, byte[] bytes, int offset, int value, String what)
+            throws IOException {
+        byte[] damaged = bytes.clone();
+        ByteBuffer.wrap(damaged).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        Files.write(image, damaged);
+        expectCorrupt(image, what);
+    }
+
+    private static void expectCorrupt(Path image, String what) throws IOException {
+        try {
+            BoggleTrie.load(image);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("image with a damaged " + what + " was loaded");
+    }
+
+    // same header, nodes and word lengths
+    private static void assertSame(BoggleTrie expected, BoggleTrie actual, String[] dictionary) {
+        if (expected.size() != actual.size() || expected.wordCount() != actual.wordCount()
+                || expected.minLength() != actual.minLength()) {
+            throw new AssertionError("header differs");
+        }
+        for (int node = 0; node < expected.size(); node++) {
+            for (int letter = 0; letter <= BoggleTrie.BARE_Q; letter++) {
+                if (expected.child(node, letter) != actual.child(node, letter)) {
+                    throw new AssertionError("child of node " + node + " differs");
+                }
+            }
+            if (expected.wordId(node) != actual.wordId(node) || expected.required(node) != actual.required(node)
+                    || expected.requiredTwice(node) != actual.requiredTwice(node)) {
+                throw new AssertionError("node " + node + " differs");
+            }
+        }
+        for (int id = 0; id < expected.wordCount(); id++) {
+            if (expected.wordLength(id) != actual.wordLength(id)) {
+                throw new AssertionError("length of word " + id + " differs");
+            }
+        }
+        for (String word : dictionary) {
+            if (expected.find(word) != actual.find(word)) {
+                throw new AssertionError("find(" + word + ") differs");
+            }
+        }
+    }
+}
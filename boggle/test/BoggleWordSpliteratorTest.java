@@ -0,0 +1,81 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Boggle, Grade 89/100, https://coursera.cs.princeton.edu/algs4/assignments/boggle/specification.php
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks the lazy word enumeration of streamWords() and forEachWord() against
+ * a brute force search of random boards: every word once, prefixes of the full
+ * enumeration under limits, and the scores passed to the sink. Compiled with
+ * the boggle sources and run with java BoggleWordSpliteratorTest; throws
+ * AssertionError on the first failure.
+ */
+public class BoggleWordSpliteratorTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            String[] dictionary = BoggleSolverTest.dictionary(random, 3_000);
+            BoggleSolver solver = new BoggleSolver(dictionary);
+            solver.setMultiplicityCheck(i % 2 == 0);
+            for (int k = 0; k < 10; k++) {
+                char[][] letters = BoggleSolverTest.board(random, 1 + random.nextInt(5), 1 + random.nextInt(5));
+                check(solver, new BoggleBoard(letters), BoggleSolverTest.bruteForce(dictionary, letters), random);
+            }
+        }
+        StdOut.println("BoggleWordSpliteratorTest passed");
+    }
+
+    private static void check(BoggleSolver solver, BoggleBoard board, Set<String> expected, Random random) {
+        List<String> all = solver.streamWords(board).collect(Collectors.toList());
+        if (all.size() != new HashSet<>(all).size() || !new TreeSet<>(all).equals(expected)) {
+            throw new AssertionError("streamed " + all + ", expected " + expected);
+        }
+
+        // a limit stops the search after the first words, in the same order
+        int limit = random.nextInt(all.size() + 2);
+        List<String> first = solver.streamWords(board).limit(limit).collect(Collectors.toList());
+        if (!first.equals(all.subList(0, Math.min(limit, all.size())))) {
+            throw new AssertionError("limit(" + limit + ") gave " + first);
+        }
+
+        List<String> passed = new ArrayList<>();
+        int count = solver.forEachWord(board, limit, Long.MAX_VALUE, (word, score) -> {
+            if (score != solver.scoreOf(word)) {
+                throw new AssertionError("score of " + word + " passed as " + score);
+            }
+            return passed.add(word);
+        });
+        if (count != first.size() || !passed.equals(first)) {
+            throw new AssertionError("forEachWord passed " + passed + ", expected " + first);
+        }
+
+        // a sink returning false stops after the word it refused
+        List<String> refused = new ArrayList<>();
+        int stopped = solver.forEachWord(board, Integer.MAX_VALUE, Long.MAX_VALUE, (word, score) -> {
+            refused.add(word);
+            return false;
+        });
+        if (stopped != Math.min(1, all.size()) || !refused.equals(all.subList(0, stopped))) {
+            throw new AssertionError("the sink was passed " + refused + " after refusing a word");
+        }
+
+        // a spent budget ends the stream, with words of the board only
+        Set<String> budgeted = solver.streamWords(board, 0).collect(Collectors.toSet());
+        if (!expected.containsAll(budgeted)) {
+            throw new AssertionError("a budgeted stream gave words not on the board: " + budgeted);
+        }
+    }
+}
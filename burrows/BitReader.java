@@ -0,0 +1,66 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+/**
+ * In-memory bit source over bytes[offset..limit), most significant bit first
+ * (the same bit order as BinaryStdIn)
+ */
+final class BitReader {
+    private byte[] bytes;
+    private int position;
+    private int limit;
+    private long buffer;
+    private int bits;
+    // zero bits appended past limit by peek(), they must never be consumed
+    private int padding;
+
+    void reset(byte[] bytes, int offset, int limit) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = limit;
+        this.buffer = 0;
+        this.bits = 0;
+        this.padding = 0;
+    }
+
+    // read r bits as an unsigned int, 0 <= r <= 32
+    int read(int r) {
+        int x = peek(r);
+        skip(r);
+        return x;
+    }
+
+    // the next r bits as an unsigned int without consuming them, 0 <= r <= 32;
+    // past the end of the data the bits read as zeros
+    int peek(int r) {
+        while (bits < r) {
+            int b = 0;
+            if (position < limit) {
+                b = bytes[position] & 0xff;
+            } else {
+                padding += 8;
+            }
+            position++;
+            buffer = (buffer << 8) | b;
+            bits += 8;
+        }
+        return (int) ((buffer >>> (bits - r)) & ((1L << r) - 1));
+    }
+
+    // consume r bits, 0 <= r <= 32
+    void skip(int r) {
+        peek(r);
+        bits -= r;
+        if (bits < padding) {
+            throw new IllegalArgumentException("unexpected end of block");
+        }
+    }
+
+    boolean readBoolean() {
+        return read(1) == 1;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.util.Arrays;
+
+/**
+ * Growable in-memory bit sink, most significant bit first (the same bit order
+ * as BinaryStdOut)
+ */
+final class BitWriter {
+    private byte[] bytes = new byte[64];
+    private int position;
+    private long buffer;
+    private int bits;
+
+    // discard the content and start writing at byte offset position
+    void reset(int position) {
+        ensureCapacity(position);
+        this.position = position;
+        this.buffer = 0;
+        this.bits = 0;
+    }
+
+    // write the r least significant bits of x, 0 <= r <= 32
+    void write(int x, int r) {
+        buffer = (buffer << r) | (x & ((1L << r) - 1));
+        bits += r;
+        while (bits >= 8) {
+            bits -= 8;
+            ensureCapacity(position + 1);
+            bytes[position++] = (byte) (buffer >>> bits);
+        }
+    }
+
+    void write(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    // pad the last byte with zeros, returns the number of bytes written
+    int flush() {
+        if (bits > 0) {
+            write(0, 8 - bits);
+        }
+        return position;
+    }
+
+    // overwrite the 4 bytes at offset with x, big-endian
+    void putInt(int offset, int x) {
+        bytes[offset] = (byte) (x >>> 24);
+        bytes[offset + 1] = (byte) (x >>> 16);
+        bytes[offset + 2] = (byte) (x >>> 8);
+        bytes[offset + 3] = (byte) x;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+        }
+    }
+}
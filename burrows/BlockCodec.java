@@ -0,0 +1,203 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.util.zip.CRC32C;
+
+/**
+ * Burrows-Wheeler, move-to-front, zero run-length and multi-table Huffman stages
+ * fused over one block, with scratch buffers reused from block to block. Not
+ * thread safe, use one codec per thread.
+ * 
+ * A frame is: int length, int first, int payload length, int CRC32C, payload
+ * bytes. The CRC32C covers the length, first and payload length fields as well
+ * as the payload, so a damaged header is caught like a damaged payload instead
+ * of decoding into a shifted or truncated block. The payload is the int
+ * restart interval, the int row of every restart point after the first (which
+ * is the first index), the int number of run-length symbols and their
+ * multi-table Huffman coding. Restart points let the inverse transform follow
+ * several shorter next[] chains at once.
+ */
+final class BlockCodec {
+    static final int HEADER_LENGTH = 4 * Integer.BYTES;
+    static final int RESTART_INTERVAL = 1 << 16;
+
+    private final BitWriter frame = new BitWriter();
+    private final BitReader payload = new BitReader();
+    private final CRC32C crc = new CRC32C();
+    private byte[] bws = new byte[0];
+    private byte[] mtf = new byte[0];
+    private byte[] out = new byte[0];
+    private int[] symbols = new int[0];
+    private int[] next = new int[0];
+    private int[] restarts = new int[0];
+    private final boolean parallel;
+
+    BlockCodec() {
+        this(false);
+    }
+
+    /**
+     * @param parallel decode the restart point chains of a block on the common
+     *                 fork-join pool
+     */
+    BlockCodec(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Encode block[0..length) into a frame
+     * 
+     * @return the frame length, the frame itself is frame()[0..frame length)
+     */
+    int encode(byte[] block, int length) {
+        ensureCapacity(length);
+
+        int restartCount = BurrowsWheeler.restartCount(length, RESTART_INTERVAL);
+        if (restartCount > restarts.length) {
+            restarts = new int[restartCount];
+        }
+        // stages are only timed while instrumentation is on
+        BlockMetrics metrics = CompressionMetrics.enabled() ? new BlockMetrics() : null;
+        long t0 = metrics != null ? System.nanoTime() : 0;
+        int first = BurrowsWheeler.transform(block, length, bws, restarts, RESTART_INTERVAL, metrics);
+        long t1 = metrics != null ? System.nanoTime() : 0;
+        MoveToFront.encode(bws, length, mtf);
+        long t2 = metrics != null ? System.nanoTime() : 0;
+        int n = ZeroRunLength.encode(mtf, length, symbols);
+        long t3 = metrics != null ? System.nanoTime() : 0;
+
+        frame.reset(HEADER_LENGTH);
+        frame.write(RESTART_INTERVAL, Integer.SIZE);
+        for (int k = 1; k < restartCount; k++) {
+            frame.write(restarts[k], Integer.SIZE);
+        }
+        frame.write(n, Integer.SIZE);
+        MultiTableCoder.encode(symbols, n, ZeroRunLength.RADIX, frame);
+        int frameLength = frame.flush();
+
+        int checksum = checksum(length, first, frame.bytes(), HEADER_LENGTH, frameLength - HEADER_LENGTH);
+        frame.putInt(0, length);
+        frame.putInt(Integer.BYTES, first);
+        frame.putInt(2 * Integer.BYTES, frameLength - HEADER_LENGTH);
+        frame.putInt(3 * Integer.BYTES, checksum);
+
+        if (metrics != null) {
+            metrics.transformNanos = t1 - t0;
+            metrics.mtfNanos = t2 - t1;
+            metrics.runLengthNanos = t3 - t2;
+            metrics.entropyNanos = System.nanoTime() - t3;
+            metrics.length = length;
+            metrics.runLengthSymbols = n;
+            metrics.outputBytes = frameLength;
+            metrics.mtfZeros = countZeros(mtf, length);
+            CompressionMetrics.record(metrics);
+        }
+        return frameLength;
+    }
+
+    byte[] frame() {
+        return frame.bytes();
+    }
+
+    /**
+     * Decode the payload of a frame, after checking it and the header against the CRC32C
+     * 
+     * @return the decoded block, in the first length bytes of the returned array
+     * @throws IllegalArgumentException if the frame is corrupt
+     */
+    byte[] decode(int length, int first, int checksum, byte[] bytes, int payloadLength) {
+        int interval = decodePayload(length, first, checksum, bytes, payloadLength);
+        BurrowsWheeler.inverseTransform(restarts, interval, bws, length, out, next, parallel);
+        return out;
+    }
+
+    /**
+     * Decode the payload of a frame down to the Burrows-Wheeler transform only,
+     * after checking it and the header against the CRC32C
+     * 
+     * @return the last column of the sorted rotations, in the first length bytes
+     *         of the returned array
+     * @throws IllegalArgumentException if the frame is corrupt
+     */
+    byte[] decodeTransform(int length, int first, int checksum, byte[] bytes, int payloadLength) {
+        decodePayload(length, first, checksum, bytes, payloadLength);
+        return bws;
+    }
+
+    // decode into bws[] and restarts[], returns the restart interval
+    private int decodePayload(int length, int first, int checksum, byte[] bytes, int payloadLength) {
+        checkHeader(length, first, payloadLength);
+        if (checksum(length, first, bytes, 0, payloadLength) != checksum) {
+            throw new IllegalArgumentException("block checksum mismatch");
+        }
+        ensureCapacity(length);
+
+        payload.reset(bytes, 0, payloadLength);
+        int interval = payload.read(Integer.SIZE);
+        if (interval <= 0) {
+            throw new IllegalArgumentException("corrupt restart interval");
+        }
+        int restartCount = BurrowsWheeler.restartCount(length, interval);
+        if (restartCount > restarts.length) {
+            restarts = new int[restartCount];
+        }
+        restarts[0] = first;
+        for (int k = 1; k < restartCount; k++) {
+            restarts[k] = payload.read(Integer.SIZE);
+            if (restarts[k] < 0 || restarts[k] >= length) {
+                throw new IllegalArgumentException("corrupt restart point");
+            }
+        }
+
+        int n = payload.read(Integer.SIZE);
+        if (n < 0 || n > length) {
+            throw new IllegalArgumentException("corrupt symbol count");
+        }
+        MultiTableCoder.decode(payload, ZeroRunLength.RADIX, symbols, n);
+        ZeroRunLength.decode(symbols, n, mtf, length);
+        MoveToFront.decode(mtf, length, bws);
+        return interval;
+    }
+
+    // CRC32C of the header fields, big-endian, then of the payload
+    private int checksum(int length, int first, byte[] bytes, int offset, int payloadLength) {
+        crc.reset();
+        for (int field : new int[] { length, first, payloadLength }) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                crc.update(field >>> shift);
+            }
+        }
+        crc.update(bytes, offset, payloadLength);
+        return (int) crc.getValue();
+    }
+
+    private static int countZeros(byte[] bytes, int length) {
+        int zeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == 0) {
+                zeros++;
+            }
+        }
+        return zeros;
+    }
+
+    static void checkHeader(int length, int first, int payloadLength) {
+        if (length <= 0 || first < 0 || first >= length || payloadLength < 0) {
+            throw new IllegalArgumentException("corrupt block header");
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (length > bws.length) {
+            bws = new byte[length];
+            mtf = new byte[length];
+            out = new byte[length];
+            symbols = new int[length];
+            next = new int[length];
+        }
+    }
+}
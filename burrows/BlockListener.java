@@ -0,0 +1,21 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ *
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+/**
+ * Receives the metrics of every compressed block, see
+ * {@link CompressionMetrics#addListener(BlockListener)}. Blocks are compressed
+ * on worker threads, so implementations must be thread safe and should return
+ * quickly.
+ */
+public interface BlockListener {
+    /**
+     * Called once a block is compressed
+     *
+     * @param metrics the block's metrics
+     */
+    void blockCompressed(BlockMetrics metrics);
+}
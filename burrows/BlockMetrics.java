@@ -0,0 +1,102 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ *
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.util.Locale;
+
+/**
+ * What compressing one block cost and how well each stage did: the time spent
+ * in every stage, the bytes (or symbols) going in and out of it, the fraction
+ * of zeros out of move-to-front and the symbol comparisons of the suffix sort.
+ *
+ * The Burrows-Wheeler and move-to-front stages map length bytes to length
+ * bytes; the zero run-length stage maps them to runLengthSymbols() symbols and
+ * the entropy coder those to outputBytes() payload bytes.
+ */
+public final class BlockMetrics {
+    int length;
+    long sortNanos;
+    long transformNanos;
+    long mtfNanos;
+    long runLengthNanos;
+    long entropyNanos;
+    long sortComparisons;
+    int mtfZeros;
+    int runLengthSymbols;
+    int outputBytes;
+
+    BlockMetrics() {
+    }
+
+    // bytes into the block, and out of the Burrows-Wheeler and move-to-front stages
+    public int length() {
+        return length;
+    }
+
+    // nanoseconds spent sorting the rotations, part of transformNanos()
+    public long sortNanos() {
+        return sortNanos;
+    }
+
+    // nanoseconds spent in the Burrows-Wheeler transform, suffix sort included
+    public long transformNanos() {
+        return transformNanos;
+    }
+
+    // nanoseconds spent in move-to-front encoding
+    public long mtfNanos() {
+        return mtfNanos;
+    }
+
+    // nanoseconds spent in zero run-length coding
+    public long runLengthNanos() {
+        return runLengthNanos;
+    }
+
+    // nanoseconds spent in multi-table Huffman coding and the checksum
+    public long entropyNanos() {
+        return entropyNanos;
+    }
+
+    // nanoseconds spent on the whole block
+    public long totalNanos() {
+        return transformNanos + mtfNanos + runLengthNanos + entropyNanos;
+    }
+
+    // symbol comparisons made by the suffix sort
+    public long sortComparisons() {
+        return sortComparisons;
+    }
+
+    // fraction of the move-to-front output that is zero
+    public double mtfZeroFraction() {
+        return length == 0 ? 0 : (double) mtfZeros / length;
+    }
+
+    // symbols out of the zero run-length stage
+    public int runLengthSymbols() {
+        return runLengthSymbols;
+    }
+
+    // bytes of the frame, header included
+    public int outputBytes() {
+        return outputBytes;
+    }
+
+    // outputBytes() over length()
+    public double ratio() {
+        return length == 0 ? 0 : (double) outputBytes / length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "length=%d out=%d ratio=%.4f sortNs=%d transformNs=%d mtfNs=%d runLengthNs=%d entropyNs=%d "
+                        + "mtfZeroFraction=%.4f runLengthSymbols=%d sortComparisons=%d",
+                length, outputBytes, ratio(), sortNanos, transformNanos, mtfNanos, runLengthNanos, entropyNanos,
+                mtfZeroFraction(), runLengthSymbols, sortComparisons);
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Random access to a compressed file, decoding only the blocks that cover the
+ * requested byte range.
+ * 
+ * The container format, all integers big-endian:
+ * 
+ * <pre>
+ * header  : int MAGIC, int block size
+ * frame   : int length, int first, int payload length, int CRC32C of the
+ *           three fields and the payload, payload
+ *           (one per block, see BlockCodec)
+ * end     : int 0
+ * index   : long frame offset, int length (one per block)
+ * trailer : long index offset, int block count, int INDEX_MAGIC
+ * </pre>
+ * 
+ * Streams can be read front to back up to the end marker, files can also be
+ * read back to front from the trailer.
+ */
+public class BurrowsArchive implements Closeable {
+    static final int MAGIC = 0x42575a32; // "BWZ2"
+    static final int INDEX_MAGIC = 0x4257585a; // "BWXZ"
+    static final int HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int INDEX_ENTRY_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final int TRAILER_LENGTH = Long.BYTES + 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final BlockCodec codec = new BlockCodec(true);
+    private final long[] frameOffsets;
+    // starts[i] is the offset of block i in the uncompressed data, starts[count]
+    // is the uncompressed length
+    private final long[] starts;
+
+    private BurrowsArchive(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < HEADER_LENGTH + Integer.BYTES + TRAILER_LENGTH) {
+            throw new IllegalArgumentException("not a burrows archive");
+        }
+        ByteBuffer header = readFully(0, HEADER_LENGTH);
+        if (header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a burrows archive");
+        }
+
+        ByteBuffer trailer = readFully(size - TRAILER_LENGTH, TRAILER_LENGTH);
+        long indexOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getInt() != INDEX_MAGIC || count < 0
+                || indexOffset + (long) count * INDEX_ENTRY_LENGTH != size - TRAILER_LENGTH) {
+            throw new IllegalArgumentException("corrupt archive index");
+        }
+
+        ByteBuffer index = readFully(indexOffset, count * INDEX_ENTRY_LENGTH);
+        this.frameOffsets = new long[count];
+        this.starts = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            frameOffsets[i] = index.getLong();
+            int length = index.getInt();
+            if (length <= 0 || frameOffsets[i] < HEADER_LENGTH || frameOffsets[i] >= indexOffset) {
+                throw new IllegalArgumentException("corrupt archive index");
+            }
+            starts[i + 1] = starts[i] + length;
+        }
+    }
+
+    /**
+     * Open a compressed file for random access
+     * 
+     * @throws IllegalArgumentException if path is not a well formed archive
+     */
+    public static BurrowsArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BurrowsArchive(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // number of blocks
+    public int blockCount() {
+        return frameOffsets.length;
+    }
+
+    // length of the uncompressed data
+    public long length() {
+        return starts[starts.length - 1];
+    }
+
+    /**
+     * Decompress the bytes [position, position + length) of the uncompressed data
+     * 
+     * @throws IllegalArgumentException if the range is out of bounds or a block
+     *                                  covering it is corrupt
+     */
+    public byte[] read(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > length()) {
+            throw new IllegalArgumentException("range out of bounds");
+        }
+
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        int block = blockOf(position);
+        while (copied < length) {
+            byte[] decoded = readBlock(block);
+            int offset = (int) (position + copied - starts[block]);
+            int n = (int) Math.min(length - copied, starts[block + 1] - starts[block] - offset);
+            System.arraycopy(decoded, offset, bytes, copied, n);
+            copied += n;
+            block++;
+        }
+        return bytes;
+    }
+
+    /**
+     * FM-index of block i, built from its Burrows-Wheeler transform without
+     * inverting it. Positions reported by the index are relative to
+     * {@link #blockStart(int)}; matches spanning two blocks are not found.
+     */
+    public FMIndex index(int i) throws IOException {
+        checkBlock(i);
+        Frame frame = readFrame(i);
+        byte[] bws = codec.decodeTransform(frame.length, frame.first, frame.checksum, frame.payload,
+                frame.payload.length);
+        return new FMIndex(frame.first, bws, frame.length);
+    }
+
+    // offset of block i in the uncompressed data
+    public long blockStart(int i) {
+        checkBlock(i);
+        return starts[i];
+    }
+
+    /**
+     * Decompress block i
+     * 
+     * @return the decoded block, in the first blockLength(i) bytes of the
+     *         returned array, overwritten by the next read
+     */
+    byte[] readBlock(int i) throws IOException {
+        Frame frame = readFrame(i);
+        return codec.decode(frame.length, frame.first, frame.checksum, frame.payload, frame.payload.length);
+    }
+
+    private Frame readFrame(int i) throws IOException {
+        ByteBuffer header = readFully(frameOffsets[i], BlockCodec.HEADER_LENGTH);
+        Frame frame = new Frame();
+        frame.length = header.getInt();
+        frame.first = header.getInt();
+        int payloadLength = header.getInt();
+        frame.checksum = header.getInt();
+        BlockCodec.checkHeader(frame.length, frame.first, payloadLength);
+        if (frame.length != starts[i + 1] - starts[i]) {
+            throw new IllegalArgumentException("block length does not match the index");
+        }
+
+        frame.payload = readFully(frameOffsets[i] + BlockCodec.HEADER_LENGTH, payloadLength).array();
+        return frame;
+    }
+
+    private void checkBlock(int i) {
+        if (i < 0 || i >= frameOffsets.length) {
+            throw new IllegalArgumentException("block out of bounds");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static class Frame {
+        private int length;
+        private int first;
+        private int checksum;
+        private byte[] payload;
+    }
+
+    // index of the block holding uncompressed byte position
+    private int blockOf(long position) {
+        int i = Arrays.binarySearch(starts, 0, frameOffsets.length, position);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private ByteBuffer readFully(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IllegalArgumentException("archive truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // print the bytes [args[1], args[1] + args[2]) of the compressed file args[0]
+    // to standard output
+    public static void main(String[] args) {
+        try (BurrowsArchive archive = open(Paths.get(args[0]))) {
+            byte[] bytes = archive.read(Long.parseLong(args[1]), Integer.parseInt(args[2]));
+            System.out.write(bytes);
+            System.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
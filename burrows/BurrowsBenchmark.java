@@ -0,0 +1,214 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ *
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Throughput harness for the compression stages: the suffix sort, the
+ * Burrows-Wheeler transform and its inverse, move-to-front encoding and
+ * decoding, and the full compressor, over generated corpora of several sizes.
+ * Decompression is measured twice: decomp-par follows the restart point chains
+ * of a block on the common fork-join pool, as BurrowsInputStream does, and
+ * decomp-seq follows them one after the other on the calling thread.
+ *
+ * Each benchmark is warmed up, then run for a fixed number of measured
+ * iterations; the report gives the median throughput in MB/s, the bytes
+ * allocated per input byte, and, for the full pipeline, the compression ratio.
+ */
+public class BurrowsBenchmark {
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+    private static final long SEED = 0x5eed;
+
+    // results are stored here so the measured work cannot be optimized away
+    static volatile long sink;
+
+    private static final String[] WORDS = { "the", "of", "and", "to", "in", "a", "is", "that", "for", "it", "as",
+            "was", "with", "be", "by", "on", "not", "he", "this", "are", "or", "his", "from", "at", "which", "but",
+            "have", "an", "had", "they", "you", "were", "their", "one", "all", "we", "can", "her", "has", "there",
+            "been", "if", "more", "when", "will", "would", "who", "so", "no", "block", "sort", "suffix", "transform",
+            "front", "move", "string", "array", "index", "compression", "algorithm" };
+
+    private interface Stage {
+        // run the stage once over the prepared input, returns a value to consume
+        long run();
+    }
+
+    /**
+     * Generated corpus of length bytes
+     *
+     * @param kind   one of "random", "text", "repetitive" or "binary"
+     * @param length the number of bytes
+     * @return the corpus bytes
+     */
+    static byte[] corpus(String kind, int length) {
+        if (kind == null || length < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        Random random = new Random(SEED);
+        byte[] data = new byte[length];
+        switch (kind) {
+        case "random":
+            random.nextBytes(data);
+            break;
+        case "text":
+            // words drawn with a skewed distribution, so common words dominate
+            for (int i = 0; i < length;) {
+                String word = WORDS[(int) (WORDS.length * Math.pow(random.nextDouble(), 3))];
+                for (int j = 0; j < word.length() && i < length; j++) {
+                    data[i++] = (byte) word.charAt(j);
+                }
+                if (i < length) {
+                    data[i++] = (byte) (random.nextInt(12) == 0 ? '\n' : ' ');
+                }
+            }
+            break;
+        case "repetitive":
+            // a short phrase repeated with rare single byte edits
+            byte[] phrase = "abracadabra, a banana bandana; ".getBytes();
+            for (int i = 0; i < length; i++) {
+                data[i] = phrase[i % phrase.length];
+                if (random.nextInt(4096) == 0) {
+                    data[i] = (byte) random.nextInt(256);
+                }
+            }
+            break;
+        case "binary":
+            // little-endian records of a slowly increasing counter and a small value
+            int counter = 0;
+            for (int i = 0; i < length; i++) {
+                if (i % 8 == 0) {
+                    counter += random.nextInt(16);
+                }
+                int field = i % 8;
+                data[i] = field < 4 ? (byte) (counter >>> (8 * field)) : (byte) (field == 4 ? random.nextInt(64) : 0);
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("unknown corpus " + kind);
+        }
+        return data;
+    }
+
+    // bytes allocated by the current thread so far, -1 if not supported
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    // decompress frame by frame on the calling thread with the sequential
+    // decoder, returns the number of bytes decoded
+    private static long decompressSequential(byte[] compressed) {
+        try {
+            ContainerReader container = new ContainerReader(new ByteArrayInputStream(compressed));
+            long decoded = 0;
+            while (container.next()) {
+                byte[] payload = Arrays.copyOf(container.payload(), container.payloadLength());
+                decoded += BurrowsCompressor.decodeBlock(container.length(), container.first(),
+                        container.checksum(), payload).length;
+            }
+            return decoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // warm up and measure stage over length input bytes, then print a report line
+    private static void measure(String corpus, String name, int length, Stage stage, String extra) {
+        long consumed = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            consumed += stage.run();
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        long allocated = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            consumed += stage.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        sink = consumed;
+        allocated = allocated < 0 ? -1 : allocatedBytes() - allocated;
+
+        Arrays.sort(nanos);
+        double median = nanos[ITERATIONS / 2];
+        double mbs = median == 0 ? 0 : length / median * 1e9 / (1 << 20);
+        double perByte = allocated < 0 || length == 0 ? Double.NaN : (double) allocated / ITERATIONS / length;
+
+        System.out.printf(Locale.ROOT, "%-10s %10d %-12s %10.2f MB/s %8.2f B/B alloc%s%n", corpus, length, name, mbs,
+                perByte, extra);
+    }
+
+    /**
+     * Run every stage over every corpus at the given size
+     *
+     * @param length the corpus size in bytes
+     */
+    static void run(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        for (String kind : new String[] { "random", "text", "repetitive", "binary" }) {
+            byte[] data = corpus(kind, length);
+            byte[] bws = new byte[length];
+            byte[] mtf = new byte[length];
+            byte[] out = new byte[length];
+            int[] next = new int[length];
+
+            int bwi = BurrowsWheeler.transform(data, length, bws);
+            MoveToFront.encode(bws, length, mtf);
+            byte[] compressed = BurrowsCompressor.compress(data, length);
+            String ratio = String.format(Locale.ROOT, " %6.3f ratio", (double) compressed.length / length);
+
+            measure(kind, "sort", length, () -> new CircularSuffixArray(data, length).index(0), "");
+            measure(kind, "bwt", length, () -> BurrowsWheeler.transform(data, length, bws), "");
+            measure(kind, "inverse", length, () -> {
+                BurrowsWheeler.inverseTransform(bwi, bws, length, out, next);
+                return out[0];
+            }, "");
+            measure(kind, "mtf", length, () -> {
+                MoveToFront.encode(bws, length, mtf);
+                return mtf[0];
+            }, "");
+            measure(kind, "unmtf", length, () -> {
+                MoveToFront.decode(mtf, length, out);
+                return out[0];
+            }, "");
+            measure(kind, "compress", length, () -> BurrowsCompressor.compress(data, length).length, ratio);
+            measure(kind, "decomp-par", length, () -> BurrowsCompressor.decompress(compressed).length, ratio);
+            measure(kind, "decomp-seq", length, () -> decompressSequential(compressed), ratio);
+        }
+    }
+
+    // args are the corpus sizes in bytes, 64 KB, 1 MB and 4 MB if none are given
+    public static void main(String[] args) {
+        int[] sizes = { 1 << 16, 1 << 20, 1 << 22 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int length : sizes) {
+            run(length);
+        }
+    }
+
+}
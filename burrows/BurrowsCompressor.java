@@ -0,0 +1,256 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Block compressor chaining the Burrows-Wheeler transform, move-to-front
+ * encoding, zero run-length coding and multi-table Huffman coding in memory.
+ * Blocks are independent of each other, so they are encoded (and decoded)
+ * concurrently on a pool of worker threads and written back in their original
+ * order.
+ * 
+ * The output is in the container format described in {@link BurrowsArchive}.
+ */
+public class BurrowsCompressor {
+    static final int END_OF_STREAM = 0;
+
+    // one codec, and its scratch buffers, per worker thread
+    private static final ThreadLocal<BlockCodec> CODECS = ThreadLocal.withInitial(BlockCodec::new);
+
+    /**
+     * Compress data in memory
+     * 
+     * @param data the uncompressed bytes
+     * @return the compressed bytes
+     */
+    public static byte[] compress(byte[] data) {
+        return compress(data, BurrowsWheeler.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Compress data in memory
+     * 
+     * @param data      the uncompressed bytes
+     * @param blockSize the maximum number of bytes per block
+     * @return the compressed bytes
+     */
+    public static byte[] compress(byte[] data, int blockSize) {
+        if (data == null) {
+            throw new IllegalArgumentException();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new BurrowsOutputStream(bytes, Math.min(blockSize, Math.max(data.length, 1)))) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompress data in memory
+     * 
+     * @param data the compressed bytes
+     * @return the uncompressed bytes
+     */
+    public static byte[] decompress(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException();
+        }
+
+        try (InputStream in = new BurrowsInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compress in into out, encoding up to threads blocks at a time
+     * 
+     * @param in        the uncompressed stream
+     * @param out       the compressed stream
+     * @param blockSize the maximum number of bytes per block
+     * @param threads   the number of worker threads
+     * @throws IOException if in or out fail
+     */
+    public static void compress(InputStream in, OutputStream out, int blockSize, int threads) throws IOException {
+        if (in == null || out == null) {
+            throw new IllegalArgumentException();
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("thread count must be positive");
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            OutputStream buffered = new BufferedOutputStream(out);
+            ContainerWriter container = new ContainerWriter(buffered, blockSize);
+
+            // keep at most 2 blocks per worker in flight, so memory stays bounded
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            while (true) {
+                byte[] block = new byte[blockSize];
+                int length = readBlock(in, block);
+                if (length == 0) {
+                    break;
+                }
+
+                pending.add(workers.submit(() -> encodeBlock(block, length)));
+                if (pending.size() >= 2 * threads) {
+                    byte[] frame = await(pending.remove());
+                    container.writeFrame(frame, frame.length);
+                }
+            }
+            while (!pending.isEmpty()) {
+                byte[] frame = await(pending.remove());
+                container.writeFrame(frame, frame.length);
+            }
+
+            container.finish();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Decompress in into out, decoding up to threads blocks at a time
+     * 
+     * @param in      the compressed stream
+     * @param out     the uncompressed stream
+     * @param threads the number of worker threads
+     * @throws IOException if in or out fail, or in is truncated
+     */
+    public static void decompress(InputStream in, OutputStream out, int threads) throws IOException {
+        if (in == null || out == null) {
+            throw new IllegalArgumentException();
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("thread count must be positive");
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            ContainerReader container = new ContainerReader(new BufferedInputStream(in));
+            OutputStream buffered = new BufferedOutputStream(out);
+
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            while (container.next()) {
+                int length = container.length();
+                int first = container.first();
+                int checksum = container.checksum();
+                byte[] payload = Arrays.copyOf(container.payload(), container.payloadLength());
+
+                pending.add(workers.submit(() -> decodeBlock(length, first, checksum, payload)));
+                if (pending.size() >= 2 * threads) {
+                    buffered.write(await(pending.remove()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                buffered.write(await(pending.remove()));
+            }
+
+            buffered.flush();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // compress block[0..length) into a frame
+    static byte[] encodeBlock(byte[] block, int length) {
+        BlockCodec codec = CODECS.get();
+        int frameLength = codec.encode(block, length);
+        return Arrays.copyOf(codec.frame(), frameLength);
+    }
+
+    // decompress the payload of a frame
+    static byte[] decodeBlock(int length, int first, int checksum, byte[] payload) {
+        BlockCodec codec = CODECS.get();
+        return Arrays.copyOf(codec.decode(length, first, checksum, payload, payload.length), length);
+    }
+
+    // fill block from in, returns the number of bytes read, 0 at end of stream
+    private static int readBlock(InputStream in, byte[] block) throws IOException {
+        int length = 0;
+        while (length < block.length) {
+            int read = in.read(block, length, block.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    private static byte[] await(Future<byte[]> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // if args[0] is "-", compress standard input to standard output, args[1] is
+    // the optional block size in bytes, args[2] the optional thread count
+    // if args[0] is "+", decompress standard input to standard output, args[1] is
+    // the optional thread count
+    // if the system property burrows.metrics names a file, per-stage compression
+    // totals are written to it at the end
+    public static void main(String[] args) {
+        String cmd = args[0];
+        int processors = Runtime.getRuntime().availableProcessors();
+        String metrics = System.getProperty("burrows.metrics");
+        if (metrics != null) {
+            CompressionMetrics.setEnabled(true);
+        }
+
+        try {
+            if (cmd.equalsIgnoreCase("-")) {
+                int blockSize = args.length > 1 ? Integer.parseInt(args[1]) : BurrowsWheeler.DEFAULT_BLOCK_SIZE;
+                int threads = args.length > 2 ? Integer.parseInt(args[2]) : processors;
+                compress(System.in, System.out, blockSize, threads);
+            } else if (cmd.equalsIgnoreCase("+")) {
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : processors;
+                decompress(System.in, System.out, threads);
+            } else {
+                throw new IllegalArgumentException("unknown command");
+            }
+            if (metrics != null) {
+                CompressionMetrics.dump(Paths.get(metrics));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
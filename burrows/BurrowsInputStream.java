@@ -0,0 +1,90 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decompresses the container format written by {@link BurrowsOutputStream} and
+ * {@link BurrowsCompressor#compress}, one block at a time. Each block is checked
+ * against its CRC32C before it is decoded.
+ */
+public class BurrowsInputStream extends InputStream {
+    private final InputStream in;
+    private final BlockCodec codec = new BlockCodec(true);
+    private ContainerReader container;
+    private byte[] block = new byte[0];
+    private int length;
+    private int position;
+    private boolean eof;
+
+    public BurrowsInputStream(InputStream in) {
+        if (in == null) {
+            throw new IllegalArgumentException();
+        }
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, length - position);
+        System.arraycopy(block, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // decode the next block once the current one is used up, false at end of
+    // stream
+    private boolean fill() throws IOException {
+        while (position == length) {
+            if (eof) {
+                return false;
+            }
+
+            if (container == null) {
+                container = new ContainerReader(in);
+            }
+            if (!container.next()) {
+                eof = true;
+                return false;
+            }
+
+            block = codec.decode(container.length(), container.first(), container.checksum(),
+                    container.payload(), container.payloadLength());
+            length = container.length();
+            position = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses everything written to it into the container format read by
+ * {@link BurrowsInputStream}, {@link BurrowsCompressor#decompress} and
+ * {@link BurrowsArchive}. Bytes are collected into a block and a frame is
+ * written each time the block fills up; closing the stream writes the last,
+ * partial block and the block index.
+ */
+public class BurrowsOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final int blockSize;
+    private final BlockCodec codec = new BlockCodec();
+    private final byte[] block;
+    private int length;
+    private ContainerWriter container;
+    private boolean closed;
+
+    public BurrowsOutputStream(OutputStream out) {
+        this(out, BurrowsWheeler.DEFAULT_BLOCK_SIZE);
+    }
+
+    public BurrowsOutputStream(OutputStream out, int blockSize) {
+        if (out == null) {
+            throw new IllegalArgumentException();
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        this.out = out;
+        this.blockSize = blockSize;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[length++] = (byte) b;
+        if (length == block.length) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, block.length - length);
+            System.arraycopy(b, off, block, length, n);
+            length += n;
+            off += n;
+            len -= n;
+            if (length == block.length) {
+                writeBlock();
+            }
+        }
+    }
+
+    // flush the underlying stream, the current partial block is kept until it
+    // fills up or the stream is closed
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock();
+            container().finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        int frameLength = codec.encode(block, length);
+        container().writeFrame(codec.frame(), frameLength);
+        length = 0;
+    }
+
+    // the header is written with the first frame, so an unused stream stays empty
+    // until it is closed
+    private ContainerWriter container() throws IOException {
+        if (container == null) {
+            container = new ContainerWriter(out, blockSize);
+        }
+        return container;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+    }
+}
@@ -6,38 +6,39 @@
  *          https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
  */
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.stream.IntStream;
 
 import edu.princeton.cs.algs4.BinaryStdIn;
 import edu.princeton.cs.algs4.BinaryStdOut;
 
 public class BurrowsWheeler {
+    private static final int R = 256; // extended ASCII
+    static final int DEFAULT_BLOCK_SIZE = 1 << 20; // 1 MB
+    // the largest block the suffix sort takes, the doubled block is int indexed
+    static final int MAX_BLOCK_SIZE = Integer.MAX_VALUE / 2;
+    // next[] chains walked side by side by the restart point inverse
+    private static final int INTERLEAVE = 4;
 
     /**
      * Apply Burrows-Wheeler transform, reading from standard input and writing to
      * standard output
      */
     public static void transform() {
-        int bwi = -1;
-        StringBuilder bws = new StringBuilder();
-
         String s = BinaryStdIn.readString();
-        CircularSuffixArray suffices = new CircularSuffixArray(s);
-        for (int i = 0; i < suffices.length(); i++) {
-            int index = suffices.index(i);
-            if (index == 0) {
-                index = s.length();
-                bwi = i;
-            }
-            bws.append(s.charAt(index - 1));
-        }
+        byte[] block = toBytes(s);
+        byte[] bws = new byte[block.length];
+
+        int bwi = transform(block, block.length, bws);
 
         BinaryStdOut.write(bwi);
-        BinaryStdOut.write(bws.toString());
+        write(bws, bws.length);
         BinaryStdOut.close();
     }
 
@@ -48,67 +49,401 @@ public class BurrowsWheeler {
     public static void inverseTransform() {
         int bwi = BinaryStdIn.readInt(); // 3
         String bws = BinaryStdIn.readString(); // "ARD!RCAAAABB";
+        byte[] block = toBytes(bws);
+        byte[] out = new byte[block.length];
 
-        // initialize t[]
-        Map<Character, List<Integer>> tmap = new HashMap<>();
-        char[] t = new char[bws.length()];
-        for (int i = 0; i < bws.length(); i++) {
-            t[i] = bws.charAt(i);
-            if (!tmap.containsKey(t[i])) {
-                tmap.put(t[i], new ArrayList<Integer>());
-            }
+        inverseTransform(bwi, block, block.length, out, new int[block.length]);
 
-            tmap.get(t[i]).add(i);
+        // spit out the original stream
+        write(out, out.length);
+        BinaryStdOut.close();
+    }
+
+    /**
+     * Apply Burrows-Wheeler transform, reading from file in and writing to file out
+     * through memory mapped buffers, in the same format as {@link #transform()}.
+     * The suffix sort works off heap, so the block never goes through the heap.
+     */
+    public static void transform(Path in, Path out) throws IOException {
+        MappedFiles.checkDistinct(in, out);
+        MappedByteBuffer input = MappedFiles.read(in);
+        int length = input.remaining();
+
+        MappedByteBuffer output = MappedFiles.write(out, Integer.BYTES + (long) length);
+        output.position(Integer.BYTES);
+        int bwi = transform(input, output.slice());
+        output.putInt(0, bwi);
+        output.force();
+    }
+
+    /**
+     * Apply Burrows-Wheeler inverse transform, reading from file in and writing to
+     * file out through memory mapped buffers, in the same format as
+     * {@link #inverseTransform()}. next[] is kept off heap.
+     */
+    public static void inverseTransform(Path in, Path out) throws IOException {
+        MappedFiles.checkDistinct(in, out);
+        MappedByteBuffer input = MappedFiles.read(in);
+        if (input.remaining() < Integer.BYTES) {
+            throw new IllegalArgumentException("input too short for the first index");
         }
-//        StdOut.println(Arrays.toString(t));
+        int bwi = input.getInt();
+        ByteBuffer bws = input.slice();
+
+        MappedByteBuffer output = MappedFiles.write(out, bws.remaining());
+        inverseTransform(bwi, bws, output);
+        output.force();
+    }
 
-        // initialize first[]
-        char[] first = t.clone();
-        Arrays.sort(first);
-//        StdOut.println(Arrays.toString(first));
+    /**
+     * Burrows-Wheeler transform of the remaining bytes of block into bws, with the
+     * suffix array and all other working arrays allocated off heap and freed
+     * before returning. Neither buffer's position is changed.
+     *
+     * @return the row of the original string among the sorted rotations
+     */
+    public static int transform(ByteBuffer block, ByteBuffer bws) {
+        ByteBuffer in = block.slice();
+        ByteBuffer last = bws.slice();
+        int length = in.remaining();
+        if (last.remaining() < length) {
+            throw new IllegalArgumentException("output buffer too small");
+        }
 
-        // initialize next[]
-        int next[] = new int[t.length];
-        for (int i = 0; i < next.length; i++) {
-            char fc = first[i];
-            next[i] = tmap.get(fc).remove(0);
+        int bwi = -1;
+        try (OffHeapArena arena = new OffHeapArena()) {
+            IntArray suffices = CircularSuffixArray.sortCircular(in, length, arena);
+            for (int i = 0; i < length; i++) {
+                int index = suffices.get(i);
+                if (index == 0) {
+                    index = length;
+                    bwi = i;
+                }
+                last.put(i, in.get(index - 1));
+            }
         }
-//        StdOut.println(Arrays.toString(next));
+        return bwi;
+    }
+
+    /**
+     * Burrows-Wheeler inverse transform of the remaining bytes of bws into out,
+     * with next[] allocated off heap and freed before returning. Neither buffer's
+     * position is changed.
+     */
+    public static void inverseTransform(int bwi, ByteBuffer bws, ByteBuffer out) {
+        ByteBuffer last = bws.slice();
+        ByteBuffer original = out.slice();
+        int length = last.remaining();
+        if (original.remaining() < length) {
+            throw new IllegalArgumentException("output buffer too small");
+        }
+        if (length > 0 && (bwi < 0 || bwi >= length)) {
+            throw new IllegalArgumentException("first index out of bounds");
+        }
+
+        int[] count = new int[R + 1];
+        for (int i = 0; i < length; i++) {
+            count[(last.get(i) & 0xff) + 1]++;
+        }
+        for (int r = 0; r < R; r++) {
+            count[r + 1] += count[r];
+        }
+
+        try (OffHeapArena arena = new OffHeapArena()) {
+            // chunked, a single direct buffer cannot hold 2^29 ints or more
+            IntArray next = IntArray.allocate(length, arena);
+            for (int i = 0; i < length; i++) {
+                next.set(count[last.get(i) & 0xff]++, i);
+            }
 
-        // reconstruct the original stream
-        char[] out = new char[next.length];
-        {
             int i = bwi;
-            int j = 0;
-            while (j < out.length) {
-                out[j] = first[i];
+            for (int j = 0; j < length; j++) {
+                i = next.get(i);
+                original.put(j, last.get(i));
+            }
+        }
+    }
 
-                // who's next ?
-                i = next[i];
-                j++;
+    /**
+     * Apply Burrows-Wheeler transform block by block, reading from standard input
+     * and writing to standard output. The output starts with the int block size;
+     * each block is framed by its length and its first index, and is written as
+     * soon as it is sorted, so memory is bounded by the block size rather than
+     * the input size.
+     *
+     * @param blockSize the maximum number of bytes per block, at most
+     *                  MAX_BLOCK_SIZE
+     */
+    public static void transformBlocks(int blockSize) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("block size must be in [1, " + MAX_BLOCK_SIZE + "]");
+        }
+
+        byte[] block = new byte[blockSize];
+        byte[] bws = new byte[blockSize];
+        BinaryStdOut.write(blockSize);
+        while (!BinaryStdIn.isEmpty()) {
+            int length = 0;
+            while (length < blockSize && !BinaryStdIn.isEmpty()) {
+                block[length++] = (byte) BinaryStdIn.readChar();
             }
+
+            int bwi = transform(block, length, bws);
+
+            BinaryStdOut.write(length);
+            BinaryStdOut.write(bwi);
+            write(bws, length);
+            BinaryStdOut.flush();
         }
-//        StdOut.println(Arrays.toString(out));
-        
-        // spit out the original stream
-        for (int i = 0; i < out.length; i++) {
-            BinaryStdOut.write(out[i]);
+        BinaryStdOut.close();
+    }
+
+    /**
+     * Apply Burrows-Wheeler inverse transform to the framed blocks written by
+     * {@link #transformBlocks(int)}, reading from standard input and writing to
+     * standard output one block at a time.
+     *
+     * @throws IllegalArgumentException if the input is truncated, or a length
+     *                                  exceeds the block size of the stream
+     */
+    public static void inverseTransformBlocks() {
+        if (BinaryStdIn.isEmpty()) {
+            throw new IllegalArgumentException("missing block size");
+        }
+        int blockSize = BinaryStdIn.readInt();
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("corrupt stream header");
+        }
+
+        byte[] block = new byte[0];
+        byte[] out = new byte[0];
+        int[] next = new int[0];
+        while (!BinaryStdIn.isEmpty()) {
+            int length = BinaryStdIn.readInt();
+            int bwi = BinaryStdIn.readInt();
+            if (length < 0 || length > blockSize || (length > 0 && (bwi < 0 || bwi >= length))) {
+                throw new IllegalArgumentException("corrupt block header");
+            }
+
+            // the block buffer grows with the bytes actually read, so a length
+            // the input does not back ends in an exception, not a huge allocation
+            for (int i = 0; i < length; i++) {
+                if (BinaryStdIn.isEmpty()) {
+                    throw new IllegalArgumentException("truncated block");
+                }
+                if (i == block.length) {
+                    block = Arrays.copyOf(block, (int) Math.min(length, 2L * i + (1 << 16)));
+                }
+                block[i] = (byte) BinaryStdIn.readChar();
+            }
+            if (length > out.length) {
+                out = new byte[length];
+                next = new int[length];
+            }
+
+            inverseTransform(bwi, block, length, out, next);
+
+            write(out, length);
+            BinaryStdOut.flush();
         }
         BinaryStdOut.close();
     }
 
+    /**
+     * Burrows-Wheeler transform of block[0..length)
+     *
+     * @param block  the input bytes
+     * @param length the number of bytes of block to transform
+     * @param bws    receives the last column of the sorted rotations
+     * @return the row of the original string among the sorted rotations
+     */
+    static int transform(byte[] block, int length, byte[] bws) {
+        return transform(block, length, bws, null, 0);
+    }
+
+    /**
+     * Burrows-Wheeler transform of block[0..length), also recording restart
+     * points for {@link #inverseTransform(int[], int, byte[], int, byte[], int[], boolean)}
+     *
+     * @param restarts receives the row of the rotation starting at each multiple
+     *                 of interval, restarts[0] is the returned row; may be null
+     * @param interval the distance between restart points
+     * @return the row of the original string among the sorted rotations
+     */
+    static int transform(byte[] block, int length, byte[] bws, int[] restarts, int interval) {
+        return transform(block, length, bws, restarts, interval, null);
+    }
+
+    /**
+     * Burrows-Wheeler transform of block[0..length) with restart points, also
+     * recording the suffix sort time and comparison count into metrics
+     *
+     * @param metrics receives sortNanos and sortComparisons; may be null
+     * @return the row of the original string among the sorted rotations
+     */
+    static int transform(byte[] block, int length, byte[] bws, int[] restarts, int interval,
+            BlockMetrics metrics) {
+        int bwi = -1;
+
+        long start = metrics != null ? System.nanoTime() : 0;
+        CircularSuffixArray suffices = new CircularSuffixArray(block, length);
+        if (metrics != null) {
+            metrics.sortNanos = System.nanoTime() - start;
+            metrics.sortComparisons = suffices.comparisons();
+        }
+        for (int i = 0; i < length; i++) {
+            int index = suffices.index(i);
+            if (restarts != null && index % interval == 0) {
+                restarts[index / interval] = i;
+            }
+            if (index == 0) {
+                index = length;
+                bwi = i;
+            }
+            bws[i] = block[index - 1];
+        }
+
+        return bwi;
+    }
+
+    // number of restart points of a block of length bytes
+    static int restartCount(int length, int interval) {
+        return (int) (((long) length + interval - 1) / interval);
+    }
+
+    /**
+     * Burrows-Wheeler inverse transform of bws[0..length)
+     *
+     * @param bwi    the row of the original string among the sorted rotations
+     * @param bws    the last column of the sorted rotations
+     * @param length the number of bytes of bws to invert
+     * @param out    receives the original bytes
+     * @param next   scratch space of at least length entries
+     */
+    static void inverseTransform(int bwi, byte[] bws, int length, byte[] out, int[] next) {
+        buildNext(bws, length, next);
+
+        // reconstruct the original stream
+        int i = bwi;
+        for (int j = 0; j < length; j++) {
+            // who's next ?
+            i = next[i];
+            out[j] = bws[i];
+        }
+    }
+
+    /**
+     * Burrows-Wheeler inverse transform of bws[0..length), following one next[]
+     * chain per restart point instead of a single chain through the whole block.
+     * The chains are independent, so they are walked INTERLEAVE at a time to
+     * overlap their cache misses, and the groups of chains run on the common
+     * fork-join pool if parallel.
+     *
+     * @param restarts the restart rows recorded by the transform, at least
+     *                 restartCount(length, interval) of them
+     * @param interval the distance between restart points
+     */
+    static void inverseTransform(int[] restarts, int interval, byte[] bws, int length, byte[] out, int[] next,
+            boolean parallel) {
+        buildNext(bws, length, next);
+
+        int restartCount = restartCount(length, interval);
+        int groups = (restartCount + INTERLEAVE - 1) / INTERLEAVE;
+        IntStream chains = IntStream.range(0, groups);
+        if (parallel) {
+            chains = chains.parallel();
+        }
+        chains.forEach(g -> {
+            int from = g * INTERLEAVE;
+            int to = Math.min(restartCount, from + INTERLEAVE);
+            int[] rows = new int[to - from];
+            int[] positions = new int[to - from];
+            int[] ends = new int[to - from];
+            for (int c = 0; c < rows.length; c++) {
+                rows[c] = restarts[from + c];
+                positions[c] = (int) Math.min(length, (long) (from + c) * interval);
+                ends[c] = (int) Math.min(length, (long) positions[c] + interval);
+            }
+
+            // only the last chain of the block can be shorter than interval
+            for (int step = 0; step < interval; step++) {
+                for (int c = 0; c < rows.length; c++) {
+                    if (positions[c] < ends[c]) {
+                        rows[c] = next[rows[c]];
+                        out[positions[c]++] = bws[rows[c]];
+                    }
+                }
+            }
+        });
+    }
+
+    // count the occurrences of each symbol, then turn them into the start offsets
+    // of each symbol in first[] (key-indexed counting); the k(th) occurrence of a
+    // symbol in first[] is the k(th) occurrence of the same symbol in t[], so
+    // first[j] == t[next[j]]
+    private static void buildNext(byte[] bws, int length, int[] next) {
+        int[] count = new int[R + 1];
+        for (int i = 0; i < length; i++) {
+            count[(bws[i] & 0xff) + 1]++;
+        }
+        for (int r = 0; r < R; r++) {
+            count[r + 1] += count[r];
+        }
+
+        for (int i = 0; i < length; i++) {
+            next[count[bws[i] & 0xff]++] = i;
+        }
+    }
+
+    private static byte[] toBytes(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+
+    private static void write(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            BinaryStdOut.write((char) (bytes[i] & 0xff));
+        }
+    }
+
     // if args[0] is "-", apply Burrows-Wheeler transform
     // if args[0] is "+", apply Burrows-Wheeler inverse transform
+    // if args[0] is "-b", apply block Burrows-Wheeler transform, args[1] is the
+    // optional block size in bytes
+    // if args[0] is "+b", apply block Burrows-Wheeler inverse transform
+    // for "-" and "+", if args[1] and args[2] are given, read from file args[1]
+    // and write to file args[2] instead of standard input and output
     public static void main(String[] args) {
         String cmd = args[0];
+        boolean files = args.length > 2;
 
-        if (cmd.equalsIgnoreCase("-")) {
-            transform();
-        } else if (cmd.equalsIgnoreCase("+")) {
-            inverseTransform();
-        } else {
-            throw new IllegalArgumentException("unknown command");
+        try {
+            if (cmd.equalsIgnoreCase("-")) {
+                if (files) {
+                    transform(Paths.get(args[1]), Paths.get(args[2]));
+                } else {
+                    transform();
+                }
+            } else if (cmd.equalsIgnoreCase("+")) {
+                if (files) {
+                    inverseTransform(Paths.get(args[1]), Paths.get(args[2]));
+                } else {
+                    inverseTransform();
+                }
+            } else if (cmd.equalsIgnoreCase("-b")) {
+                int blockSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BLOCK_SIZE;
+                transformBlocks(blockSize);
+            } else if (cmd.equalsIgnoreCase("+b")) {
+                inverseTransformBlocks();
+            } else {
+                throw new IllegalArgumentException("unknown command");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-}
\ No newline at end of file
+}
@@ -6,34 +6,309 @@
  * Assignment: Boggle, Grade 87/100, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
  */
 
+import java.nio.ByteBuffer;
+
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.SuffixArray;
 
 public class CircularSuffixArray {
-    private final String s;
-    private final SuffixArray suffices;
+    private final int length;
+    private final int[] suffices;
+    private final long[] comparisons = new long[1];
 
     // circular suffix array of s
     public CircularSuffixArray(String s) {
         if (s == null) {
             throw new IllegalArgumentException();
         }
-        this.s = s;
-        this.suffices = new SuffixArray(s);
+        this.length = s.length();
+
+        int upper = 0;
+        int[] text = new int[s.length()];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = s.charAt(i);
+            upper = Math.max(upper, text[i]);
+        }
+        this.suffices = sortCircular(text, upper, comparisons);
+    }
+
+    // circular suffix array of the bytes block[0..length)
+    CircularSuffixArray(byte[] block, int length) {
+        if (block == null || length < 0 || length > block.length) {
+            throw new IllegalArgumentException();
+        }
+        this.length = length;
+
+        int[] text = new int[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = block[i] & 0xff;
+        }
+        this.suffices = sortCircular(text, 255, comparisons);
     }
 
     // length of s
     public int length() {
-        return s.length();
+        return length;
     }
 
     // returns index of i(th) sorted suffix
     public int index(int i) {
-        if (i >= s.length()) {
+        if (i < 0 || i >= length) {
             throw new IllegalArgumentException();
         }
 
-        return suffices.index(i);
+        return suffices[i];
+    }
+
+    // symbol comparisons made by the sort, SA-IS only compares symbols while
+    // naming the sorted LMS substrings, at every level of its recursion
+    long comparisons() {
+        return comparisons[0];
+    }
+
+    /**
+     * Sorts the circular suffixes of text in linear time: the first n suffixes of
+     * text+text, in suffix order, are exactly the sorted rotations of text.
+     *
+     * @param text        symbols in [0, upper]
+     * @param upper       largest symbol value
+     * @param comparisons comparisons[0] is increased by the number of symbol
+     *                    comparisons made; may be null
+     * @return the rotation start indices, in sorted order
+     */
+    static int[] sortCircular(int[] text, int upper, long[] comparisons) {
+        int n = text.length;
+        if (n <= 1) {
+            return new int[n];
+        }
+        checkLength(n);
+
+        IntArray sa = sais(IntArray.doubled(text), 2 * n, upper, null, comparisons);
+        int[] rotations = new int[n];
+        for (int i = 0, j = 0; i < 2 * n; i++) {
+            int v = sa.get(i);
+            if (v < n) {
+                rotations[j++] = v;
+            }
+        }
+        return rotations;
+    }
+
+    /**
+     * Sorts the circular suffixes of block[0..length) like
+     * {@link #sortCircular(int[], int, long[])}, with every working array
+     * allocated off heap from arena, and released as soon as it is not needed.
+     * The doubled text is only a view of block, and the rotations are chunked
+     * like the working arrays, so blocks of up to 2^30 - 1 bytes are sorted.
+     *
+     * @param block the bytes to sort, indexed from 0
+     * @param arena owns the returned array
+     * @return the rotation start indices, in sorted order
+     */
+    static IntArray sortCircular(ByteBuffer block, int length, OffHeapArena arena) {
+        int n = length;
+        checkLength(n);
+        IntArray rotations = IntArray.allocate(n, arena);
+        if (n <= 1) {
+            return rotations;
+        }
+
+        IntArray sa = sais(IntArray.doubled(block, n), 2 * n, 255, arena, null);
+        for (int i = 0, j = 0; i < 2 * n; i++) {
+            int v = sa.get(i);
+            if (v < n) {
+                rotations.set(j++, v);
+            }
+        }
+        sa.release();
+        return rotations;
+    }
+
+    // the doubled text and its suffix array must be indexable by an int
+    private static void checkLength(int n) {
+        if (n > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("block too large to sort: " + n + " symbols");
+        }
+    }
+
+    /**
+     * SA-IS induced sorting (Nong, Zhang, Chan) of s[0..n), symbols in [0,
+     * upper]. The working arrays are taken from arena, or the heap if arena is
+     * null, and all but the returned suffix array are released by the time the
+     * call returns, so the recursion holds at most one level's worth at a time.
+     */
+    private static IntArray sais(IntArray s, int n, int upper, OffHeapArena arena, long[] comparisons) {
+        IntArray sa = IntArray.allocate(n, arena);
+        if (n == 1) {
+            sa.set(0, 0);
+            return sa;
+        }
+        if (n == 2) {
+            boolean ordered = s.get(0) < s.get(1);
+            sa.set(0, ordered ? 0 : 1);
+            sa.set(1, ordered ? 1 : 0);
+            return sa;
+        }
+
+        // classify S-type (bit set) and L-type (bit clear) positions
+        IntArray ls = IntArray.allocate((n + 31) >>> 5, arena);
+        for (int i = n - 2; i >= 0; i--) {
+            int a = s.get(i);
+            int b = s.get(i + 1);
+            if (a < b || a == b && isS(ls, i + 1)) {
+                ls.set(i >>> 5, ls.get(i >>> 5) | 1 << i);
+            }
+        }
+
+        // bucket boundaries: sumL[c] start of the L bucket, sumS[c] start of the S
+        // bucket of symbol c
+        IntArray sumL = IntArray.allocate(upper + 2, arena);
+        IntArray sumS = IntArray.allocate(upper + 2, arena);
+        for (int i = 0; i < n; i++) {
+            int c = s.get(i);
+            if (!isS(ls, i)) {
+                sumS.set(c, sumS.get(c) + 1);
+            } else {
+                sumL.set(c + 1, sumL.get(c + 1) + 1);
+            }
+        }
+        for (int i = 0; i <= upper; i++) {
+            sumS.set(i, sumS.get(i) + sumL.get(i));
+            if (i < upper) {
+                sumL.set(i + 1, sumL.get(i + 1) + sumS.get(i));
+            }
+        }
+
+        // locate the LMS positions
+        IntArray lmsMap = IntArray.allocate(n + 1, arena);
+        lmsMap.fill(-1);
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (!isS(ls, i - 1) && isS(ls, i)) {
+                lmsMap.set(i, m++);
+            }
+        }
+        IntArray lms = IntArray.allocate(m, arena);
+        for (int i = 1, j = 0; i < n; i++) {
+            if (!isS(ls, i - 1) && isS(ls, i)) {
+                lms.set(j++, i);
+            }
+        }
+
+        IntArray buf = IntArray.allocate(upper + 2, arena);
+        induce(s, n, sa, ls, lms, m, sumL, sumS, buf);
+
+        if (m > 0) {
+            // name the sorted LMS substrings
+            IntArray sortedLms = IntArray.allocate(m, arena);
+            for (int i = 0, j = 0; i < n; i++) {
+                int v = sa.get(i);
+                if (lmsMap.get(v) != -1) {
+                    sortedLms.set(j++, v);
+                }
+            }
+            IntArray recS = IntArray.allocate(m, arena);
+            int recUpper = 0;
+            recS.set(lmsMap.get(sortedLms.get(0)), 0);
+            for (int i = 1; i < m; i++) {
+                int l = sortedLms.get(i - 1);
+                int r = sortedLms.get(i);
+                int endL = (lmsMap.get(l) + 1 < m) ? lms.get(lmsMap.get(l) + 1) : n;
+                int endR = (lmsMap.get(r) + 1 < m) ? lms.get(lmsMap.get(r) + 1) : n;
+                boolean same = true;
+                if (endL - l != endR - r) {
+                    same = false;
+                } else {
+                    int start = l;
+                    while (l < endL && s.get(l) == s.get(r)) {
+                        l++;
+                        r++;
+                    }
+                    // a substring running to the end of s is unlike any other
+                    if (l == n || r == n || s.get(l) != s.get(r)) {
+                        same = false;
+                    }
+                    if (comparisons != null) {
+                        comparisons[0] += l - start + 1;
+                    }
+                }
+                if (!same) {
+                    recUpper++;
+                }
+                recS.set(lmsMap.get(sortedLms.get(i)), recUpper);
+            }
+            lmsMap.release();
+
+            // recurse on the reduced string, then induce the final order
+            IntArray recSa = sais(recS, m, recUpper, arena, comparisons);
+            recS.release();
+            for (int i = 0; i < m; i++) {
+                sortedLms.set(i, lms.get(recSa.get(i)));
+            }
+            recSa.release();
+            induce(s, n, sa, ls, sortedLms, m, sumL, sumS, buf);
+            sortedLms.release();
+        } else {
+            lmsMap.release();
+        }
+
+        ls.release();
+        sumL.release();
+        sumS.release();
+        lms.release();
+        buf.release();
+        return sa;
+    }
+
+    private static boolean isS(IntArray ls, int i) {
+        return (ls.get(i >>> 5) & 1 << i) != 0;
+    }
+
+    private static void induce(IntArray s, int n, IntArray sa, IntArray ls, IntArray lms, int m, IntArray sumL,
+            IntArray sumS, IntArray buf) {
+        sa.fill(-1);
+
+        copy(sumS, buf);
+        for (int i = 0; i < m; i++) {
+            int d = lms.get(i);
+            if (d == n) {
+                continue;
+            }
+            int c = s.get(d);
+            int p = buf.get(c);
+            buf.set(c, p + 1);
+            sa.set(p, d);
+        }
+
+        copy(sumL, buf);
+        int last = s.get(n - 1);
+        sa.set(buf.get(last), n - 1);
+        buf.set(last, buf.get(last) + 1);
+        for (int i = 0; i < n; i++) {
+            int v = sa.get(i);
+            if (v >= 1 && !isS(ls, v - 1)) {
+                int c = s.get(v - 1);
+                int p = buf.get(c);
+                buf.set(c, p + 1);
+                sa.set(p, v - 1);
+            }
+        }
+
+        copy(sumL, buf);
+        for (int i = n - 1; i >= 0; i--) {
+            int v = sa.get(i);
+            if (v >= 1 && isS(ls, v - 1)) {
+                int c = s.get(v - 1) + 1;
+                int p = buf.get(c) - 1;
+                buf.set(c, p);
+                sa.set(p, v - 1);
+            }
+        }
+    }
+
+    private static void copy(IntArray from, IntArray to) {
+        for (int i = 0; i < from.length; i++) {
+            to.set(i, from.get(i));
+        }
     }
 
     // unit testing (required)
@@ -47,4 +322,4 @@ public class CircularSuffixArray {
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ *
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-stage compression instrumentation. Off by default: the block codecs only
+ * time their stages while it is enabled, either explicitly or by adding a
+ * listener or registering the MBean.
+ *
+ * Every compressed block is reported to the listeners and added to running
+ * totals, which are exposed over JMX as {@value #OBJECT_NAME} and can be
+ * dumped to a metrics file.
+ */
+public final class CompressionMetrics implements CompressionMetricsMBean {
+    public static final String OBJECT_NAME = "burrows:type=CompressionMetrics";
+
+    private static final CompressionMetrics TOTALS = new CompressionMetrics();
+    private static final List<BlockListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile boolean enabled;
+
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder sortNanos = new LongAdder();
+    private final LongAdder transformNanos = new LongAdder();
+    private final LongAdder mtfNanos = new LongAdder();
+    private final LongAdder runLengthNanos = new LongAdder();
+    private final LongAdder entropyNanos = new LongAdder();
+    private final LongAdder mtfZeros = new LongAdder();
+    private final LongAdder sortComparisons = new LongAdder();
+
+    private CompressionMetrics() {
+    }
+
+    // true if block codecs should measure their stages
+    static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn instrumentation on or off, listeners and totals are kept either way
+     *
+     * @param on whether block codecs measure their stages
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Report every compressed block to listener, enables instrumentation
+     *
+     * @param listener called on the compressing thread
+     */
+    public static void addListener(BlockListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException();
+        }
+        LISTENERS.add(listener);
+        enabled = true;
+    }
+
+    public static void removeListener(BlockListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Register the totals with the platform MBean server, enables
+     * instrumentation; registering twice is harmless
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(TOTALS, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        enabled = true;
+    }
+
+    // the running totals
+    public static CompressionMetricsMBean totals() {
+        return TOTALS;
+    }
+
+    // add a compressed block to the totals and hand it to the listeners
+    static void record(BlockMetrics metrics) {
+        TOTALS.add(metrics);
+        for (BlockListener listener : LISTENERS) {
+            listener.blockCompressed(metrics);
+        }
+    }
+
+    /**
+     * Write the totals to file, one name=value line each
+     *
+     * @param file the metrics file, replaced if it exists
+     */
+    public static void dump(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException();
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            CompressionMetrics t = TOTALS;
+            out.println("blocks=" + t.getBlocks());
+            out.println("bytesIn=" + t.getBytesIn());
+            out.println("bytesOut=" + t.getBytesOut());
+            out.println(String.format(Locale.ROOT, "ratio=%.6f", t.getRatio()));
+            out.println("sortNanos=" + t.getSortNanos());
+            out.println("transformNanos=" + t.getTransformNanos());
+            out.println("mtfNanos=" + t.getMtfNanos());
+            out.println("runLengthNanos=" + t.getRunLengthNanos());
+            out.println("entropyNanos=" + t.getEntropyNanos());
+            out.println(String.format(Locale.ROOT, "mtfZeroFraction=%.6f", t.getMtfZeroFraction()));
+            out.println("sortComparisons=" + t.getSortComparisons());
+            if (out.checkError()) {
+                throw new IOException("failed to write " + file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void add(BlockMetrics metrics) {
+        blocks.increment();
+        bytesIn.add(metrics.length);
+        bytesOut.add(metrics.outputBytes);
+        sortNanos.add(metrics.sortNanos);
+        transformNanos.add(metrics.transformNanos);
+        mtfNanos.add(metrics.mtfNanos);
+        runLengthNanos.add(metrics.runLengthNanos);
+        entropyNanos.add(metrics.entropyNanos);
+        mtfZeros.add(metrics.mtfZeros);
+        sortComparisons.add(metrics.sortComparisons);
+    }
+
+    @Override
+    public long getBlocks() {
+        return blocks.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public double getRatio() {
+        long in = getBytesIn();
+        return in == 0 ? 0 : (double) getBytesOut() / in;
+    }
+
+    @Override
+    public long getSortNanos() {
+        return sortNanos.sum();
+    }
+
+    @Override
+    public long getTransformNanos() {
+        return transformNanos.sum();
+    }
+
+    @Override
+    public long getMtfNanos() {
+        return mtfNanos.sum();
+    }
+
+    @Override
+    public long getRunLengthNanos() {
+        return runLengthNanos.sum();
+    }
+
+    @Override
+    public long getEntropyNanos() {
+        return entropyNanos.sum();
+    }
+
+    @Override
+    public double getMtfZeroFraction() {
+        long in = getBytesIn();
+        return in == 0 ? 0 : (double) mtfZeros.sum() / in;
+    }
+
+    @Override
+    public long getSortComparisons() {
+        return sortComparisons.sum();
+    }
+
+    @Override
+    public void reset() {
+        blocks.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        sortNanos.reset();
+        transformNanos.reset();
+        mtfNanos.reset();
+        runLengthNanos.reset();
+        entropyNanos.reset();
+        mtfZeros.reset();
+        sortComparisons.reset();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ *
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+/**
+ * JMX view of the totals kept by {@link CompressionMetrics}.
+ */
+public interface CompressionMetricsMBean {
+    long getBlocks();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    double getRatio();
+
+    long getSortNanos();
+
+    long getTransformNanos();
+
+    long getMtfNanos();
+
+    long getRunLengthNanos();
+
+    long getEntropyNanos();
+
+    double getMtfZeroFraction();
+
+    long getSortComparisons();
+
+    void reset();
+}
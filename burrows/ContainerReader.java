@@ -0,0 +1,75 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the frames of the container format described in {@link BurrowsArchive}
+ * sequentially, stopping at the end marker. The block index is only needed for
+ * random access and is not read.
+ */
+final class ContainerReader {
+    private final DataInputStream in;
+    private byte[] payload = new byte[0];
+    private int length;
+    private int first;
+    private int payloadLength;
+    private int checksum;
+
+    ContainerReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (this.in.readInt() != BurrowsArchive.MAGIC) {
+            throw new IllegalArgumentException("not a burrows archive");
+        }
+        int blockSize = this.in.readInt();
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("corrupt archive header");
+        }
+    }
+
+    // read the next frame, false at the end marker
+    boolean next() throws IOException {
+        length = in.readInt();
+        if (length == BurrowsCompressor.END_OF_STREAM) {
+            return false;
+        }
+        first = in.readInt();
+        payloadLength = in.readInt();
+        checksum = in.readInt();
+        BlockCodec.checkHeader(length, first, payloadLength);
+
+        if (payloadLength > payload.length) {
+            payload = new byte[payloadLength];
+        }
+        in.readFully(payload, 0, payloadLength);
+        return true;
+    }
+
+    int length() {
+        return length;
+    }
+
+    int first() {
+        return first;
+    }
+
+    int checksum() {
+        return checksum;
+    }
+
+    // the payload of the current frame, in the first payloadLength() bytes,
+    // overwritten by the next frame
+    byte[] payload() {
+        return payload;
+    }
+
+    int payloadLength() {
+        return payloadLength;
+    }
+}
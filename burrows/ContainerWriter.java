@@ -0,0 +1,61 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes the container format described in {@link BurrowsArchive}: the header,
+ * then one frame per block, then the end marker, the block index and the
+ * trailer.
+ */
+final class ContainerWriter {
+    private final DataOutputStream out;
+    private long position;
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private int blocks;
+
+    ContainerWriter(OutputStream out, int blockSize) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(BurrowsArchive.MAGIC);
+        this.out.writeInt(blockSize);
+        this.position = BurrowsArchive.HEADER_LENGTH;
+    }
+
+    // write the BlockCodec frame in frame[0..frameLength)
+    void writeFrame(byte[] frame, int frameLength) throws IOException {
+        int blockLength = ByteBuffer.wrap(frame).getInt(0);
+        if (blocks == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * blocks);
+            lengths = Arrays.copyOf(lengths, 2 * blocks);
+        }
+        offsets[blocks] = position;
+        lengths[blocks] = blockLength;
+        blocks++;
+
+        out.write(frame, 0, frameLength);
+        position += frameLength;
+    }
+
+    // write the end marker, the block index and the trailer
+    void finish() throws IOException {
+        out.writeInt(BurrowsCompressor.END_OF_STREAM);
+        long indexOffset = position + Integer.BYTES;
+        for (int i = 0; i < blocks; i++) {
+            out.writeLong(offsets[i]);
+            out.writeInt(lengths[i]);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(blocks);
+        out.writeInt(BurrowsArchive.INDEX_MAGIC);
+        out.flush();
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.util.Arrays;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * FM-index over the Burrows-Wheeler transform of a block: counts, locates and
+ * extracts without inverting the whole transform. Backward search narrows the
+ * range of sorted rotations prefixed by the pattern one symbol at a time, using
+ * the symbol counts C[] and occurrence checkpoints every CHECKPOINT rows; text
+ * positions come from rotation starts sampled every SAMPLE_RATE positions.
+ *
+ * A checkpoint holds 16-bit counts relative to the int counts of its
+ * superblock of SUPERBLOCK rows, and a rank scans the transform from the
+ * nearest checkpoint, at most CHECKPOINT / 2 bytes away. The index takes about
+ * 3.5 bytes per byte of the block: 2 for the checkpoints, 1/64 for the
+ * superblocks, 1 for its copy of the transform and under 1/2 for the samples.
+ * Building it needs 8 more bytes per byte for a while, and a periodic block
+ * keeps 1 more for its inverse.
+ * 
+ * The transform is circular, so matches wrapping around the end of the block
+ * are found by the backward search too and are filtered out. A block that is a
+ * repetition of a shorter string has equal rotations, whose order cannot agree
+ * with the LF mapping; such blocks are inverted once and searched directly.
+ */
+public class FMIndex {
+    private static final int R = 256; // extended ASCII
+    private static final int CHECKPOINT = 256;
+    private static final int SUPERBLOCK_BITS = 16;
+    private static final int SUPERBLOCK = 1 << SUPERBLOCK_BITS; // a multiple of CHECKPOINT
+    private static final int SAMPLE_RATE = 32;
+
+    private final int n;
+    private final int first;
+    private final byte[] bws;
+    // count[c] number of symbols smaller than c
+    private final int[] count = new int[R + 1];
+    // superOcc[s * R + c] occurrences of c in bws[0..s * SUPERBLOCK), and
+    // occ[k * R + c] occurrences of c in bws[k * CHECKPOINT rounded down to a
+    // superblock..k * CHECKPOINT), which are less than SUPERBLOCK
+    private final int[] superOcc;
+    private final char[] occ;
+    // sampled[] marks the rows whose rotation start is a multiple of SAMPLE_RATE,
+    // samples[] holds those starts in row order
+    private final long[] sampled;
+    private final int[] sampledRank;
+    private final int[] samples;
+    // rows[k] the row of the rotation starting at k * SAMPLE_RATE
+    private final int[] rows;
+    // the block itself, only kept when it is periodic
+    private final byte[] periodic;
+
+    /**
+     * @param first  the row of the original string among the sorted rotations
+     * @param bws    the last column of the sorted rotations
+     * @param length the number of bytes of bws to index
+     */
+    public FMIndex(int first, byte[] bws, int length) {
+        if (bws == null || length < 0 || length > bws.length || (length > 0 && (first < 0 || first >= length))) {
+            throw new IllegalArgumentException();
+        }
+        this.n = length;
+        this.first = first;
+        this.bws = Arrays.copyOf(bws, length);
+
+        // C[] and the occurrence checkpoints, the last one at or before n
+        this.superOcc = new int[(n / SUPERBLOCK + 1) * R];
+        this.occ = new char[(n / CHECKPOINT + 1) * R];
+        int[] running = new int[R];
+        for (int i = 0; i <= n; i++) {
+            if (i % SUPERBLOCK == 0) {
+                System.arraycopy(running, 0, superOcc, (i / SUPERBLOCK) * R, R);
+            }
+            if (i % CHECKPOINT == 0) {
+                int base = (i / SUPERBLOCK) * R;
+                int k = (i / CHECKPOINT) * R;
+                for (int c = 0; c < R; c++) {
+                    occ[k + c] = (char) (running[c] - superOcc[base + c]);
+                }
+            }
+            if (i < n) {
+                running[this.bws[i] & 0xff]++;
+            }
+        }
+        for (int c = 0; c < R; c++) {
+            count[c + 1] = count[c] + running[c];
+        }
+
+        // LF(i) for every row in one pass, the k(th) c of the last column is the
+        // k(th) row starting with c
+        int[] lf = new int[n];
+        int[] seen = Arrays.copyOf(count, R);
+        for (int i = 0; i < n; i++) {
+            lf[i] = seen[this.bws[i] & 0xff]++;
+        }
+
+        // walk the rotations backwards from the original string, which starts at
+        // position 0 (or n), and sample their starts
+        this.sampled = new long[(n + 63) / 64 + 1];
+        this.rows = new int[(n + SAMPLE_RATE - 1) / SAMPLE_RATE + 1];
+        int[] sampleAt = new int[n];
+        boolean cyclic = true;
+        int row = first;
+        for (int position = n; position > 0; position--) {
+            if (position < n && row == first) {
+                cyclic = false;
+                break;
+            }
+            if (position % SAMPLE_RATE == 0 && position < n) {
+                sampled[row >>> 6] |= 1L << row;
+                sampleAt[row] = position;
+                rows[position / SAMPLE_RATE] = row;
+            }
+            row = lf[row];
+        }
+        if (n > 0) {
+            sampled[first >>> 6] |= 1L << first;
+            sampleAt[first] = 0;
+            rows[0] = first;
+            rows[rows.length - 1] = first;
+        }
+
+        if (!cyclic) {
+            this.periodic = new byte[n];
+            BurrowsWheeler.inverseTransform(first, this.bws, n, periodic, lf);
+            this.sampledRank = new int[0];
+            this.samples = new int[0];
+            return;
+        }
+        this.periodic = null;
+
+        this.sampledRank = new int[sampled.length];
+        for (int w = 1; w < sampled.length; w++) {
+            sampledRank[w] = sampledRank[w - 1] + Long.bitCount(sampled[w - 1]);
+        }
+        this.samples = new int[sampledRank[sampled.length - 1] + Long.bitCount(sampled[sampled.length - 1])];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (isSampled(i)) {
+                samples[j++] = sampleAt[i];
+            }
+        }
+    }
+
+    /**
+     * Build the index of a block of text
+     */
+    public static FMIndex of(byte[] text) {
+        if (text == null) {
+            throw new IllegalArgumentException();
+        }
+        byte[] bws = new byte[text.length];
+        int first = BurrowsWheeler.transform(text, text.length, bws);
+        return new FMIndex(first, bws, text.length);
+    }
+
+    // length of the indexed block
+    public int length() {
+        return n;
+    }
+
+    /**
+     * @return the number of occurrences of pattern in the block
+     */
+    public int count(byte[] pattern) {
+        checkPattern(pattern);
+        if (periodic != null) {
+            return scan(pattern).length;
+        }
+        int m = pattern.length;
+        if (m > n) {
+            return 0;
+        }
+
+        int[] range = range(pattern);
+        int matches = range[1] - range[0];
+
+        // drop the matches wrapping around the end of the block
+        if (matches > 0 && m > 1) {
+            byte[] tail = extract(n - m + 1, n);
+            byte[] head = extract(0, m - 1);
+            byte[] around = new byte[2 * (m - 1)];
+            System.arraycopy(tail, 0, around, 0, m - 1);
+            System.arraycopy(head, 0, around, m - 1, m - 1);
+            for (int p = 0; p < m - 1; p++) {
+                if (startsWith(around, p, pattern)) {
+                    matches--;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the positions of the occurrences of pattern in the block, in
+     *         ascending order
+     */
+    public int[] locate(byte[] pattern) {
+        checkPattern(pattern);
+        if (periodic != null) {
+            return scan(pattern);
+        }
+        int m = pattern.length;
+        if (m > n) {
+            return new int[0];
+        }
+
+        int[] range = range(pattern);
+        int[] positions = new int[range[1] - range[0]];
+        int found = 0;
+        for (int row = range[0]; row < range[1]; row++) {
+            int steps = 0;
+            int r = row;
+            while (!isSampled(r)) {
+                r = lf(r);
+                steps++;
+            }
+            int position = (samples[rank(r)] + steps) % n;
+            if (position + m <= n) {
+                positions[found++] = position;
+            }
+        }
+        positions = Arrays.copyOf(positions, found);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * @return the bytes [from, to) of the block
+     */
+    public byte[] extract(int from, int to) {
+        if (from < 0 || to > n || from > to) {
+            throw new IllegalArgumentException("range out of bounds");
+        }
+        if (periodic != null) {
+            return Arrays.copyOfRange(periodic, from, to);
+        }
+
+        // walk backwards from the first sampled rotation start at or after to
+        int k = (to + SAMPLE_RATE - 1) / SAMPLE_RATE;
+        int position = Math.min(k * SAMPLE_RATE, n);
+        int row = position == n ? first : rows[k];
+
+        byte[] bytes = new byte[to - from];
+        while (position > from) {
+            // bws[row] is the symbol before the rotation of row
+            position--;
+            if (position < to) {
+                bytes[position - from] = bws[row];
+            }
+            row = lf(row);
+        }
+        return bytes;
+    }
+
+    // [lo, hi) range of the rows prefixed by pattern, by backward search
+    private int[] range(byte[] pattern) {
+        int lo = 0;
+        int hi = n;
+        for (int i = pattern.length - 1; i >= 0 && lo < hi; i--) {
+            int c = pattern[i] & 0xff;
+            lo = count[c] + occurrences(c, lo);
+            hi = count[c] + occurrences(c, hi);
+        }
+        return new int[] { lo, Math.max(lo, hi) };
+    }
+
+    // occurrences of c in bws[0..i), counted from the nearest checkpoint
+    private int occurrences(int c, int i) {
+        int k = Math.min((i + CHECKPOINT / 2) / CHECKPOINT, n / CHECKPOINT);
+        int j = k * CHECKPOINT;
+        int occurrences = superOcc[(j >>> SUPERBLOCK_BITS) * R + c] + occ[k * R + c];
+        byte symbol = (byte) c;
+        for (; j < i; j++) {
+            if (bws[j] == symbol) {
+                occurrences++;
+            }
+        }
+        while (j > i) {
+            if (bws[--j] == symbol) {
+                occurrences--;
+            }
+        }
+        return occurrences;
+    }
+
+    private int lf(int row) {
+        int c = bws[row] & 0xff;
+        return count[c] + occurrences(c, row);
+    }
+
+    private boolean isSampled(int row) {
+        return (sampled[row >>> 6] & (1L << row)) != 0;
+    }
+
+    // number of sampled rows before row
+    private int rank(int row) {
+        int w = row >>> 6;
+        return sampledRank[w] + Long.bitCount(sampled[w] & ((1L << row) - 1));
+    }
+
+    private int[] scan(byte[] pattern) {
+        int m = pattern.length;
+        if (m > n) {
+            return new int[0];
+        }
+        int[] positions = new int[n - m + 1];
+        int found = 0;
+        for (int p = 0; p + m <= n; p++) {
+            if (startsWith(periodic, p, pattern)) {
+                positions[found++] = p;
+            }
+        }
+        return Arrays.copyOf(positions, found);
+    }
+
+    private static boolean startsWith(byte[] text, int offset, byte[] pattern) {
+        if (offset + pattern.length > text.length) {
+            return false;
+        }
+        for (int j = 0; j < pattern.length; j++) {
+            if (text[offset + j] != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkPattern(byte[] pattern) {
+        if (pattern == null || pattern.length == 0) {
+            throw new IllegalArgumentException("empty pattern");
+        }
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        String text = "ABRACADABRA!";
+        FMIndex index = FMIndex.of(text.getBytes());
+
+        byte[] pattern = "ABRA".getBytes();
+        StdOut.println(index.count(pattern) + " occurrences of ABRA at " + Arrays.toString(index.locate(pattern)));
+        StdOut.println(new String(index.extract(4, 9)));
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.util.PriorityQueue;
+
+/**
+ * Canonical Huffman codes: length-limited code lengths from symbol frequencies,
+ * and the canonical codes for given lengths, so that only the lengths need to
+ * be stored for a decoder to rebuild the same codes.
+ */
+final class HuffmanCoder {
+    static final int MAX_CODE_LENGTH = 20;
+
+    // Huffman code lengths, limited to MAX_CODE_LENGTH by flattening the
+    // frequencies until the tree is shallow enough
+    static int[] codeLengths(int[] freq) {
+        int radix = freq.length;
+        int[] weight = new int[radix];
+        for (int r = 0; r < radix; r++) {
+            weight[r] = freq[r];
+        }
+
+        while (true) {
+            int[] lengths = buildLengths(weight);
+            int max = 0;
+            for (int len : lengths) {
+                max = Math.max(max, len);
+            }
+            if (max <= MAX_CODE_LENGTH) {
+                return lengths;
+            }
+            for (int r = 0; r < radix; r++) {
+                if (weight[r] > 0) {
+                    weight[r] = 1 + weight[r] / 2;
+                }
+            }
+        }
+    }
+
+    private static int[] buildLengths(int[] weight) {
+        int radix = weight.length;
+        int[] lengths = new int[radix];
+
+        // nodes [0, radix) are leaves, the rest are internal
+        long[] nodeWeight = new long[2 * radix];
+        int[] parent = new int[2 * radix];
+        PriorityQueue<Integer> pq = new PriorityQueue<>(
+                (a, b) -> nodeWeight[a] != nodeWeight[b] ? Long.compare(nodeWeight[a], nodeWeight[b]) : a - b);
+        for (int r = 0; r < radix; r++) {
+            if (weight[r] > 0) {
+                nodeWeight[r] = weight[r];
+                pq.add(r);
+            }
+        }
+        if (pq.size() == 1) {
+            lengths[pq.peek()] = 1;
+            return lengths;
+        }
+
+        int nodes = radix;
+        while (pq.size() > 1) {
+            int x = pq.remove();
+            int y = pq.remove();
+            nodeWeight[nodes] = nodeWeight[x] + nodeWeight[y];
+            parent[x] = nodes;
+            parent[y] = nodes;
+            pq.add(nodes++);
+        }
+
+        int root = nodes - 1;
+        for (int r = 0; r < radix; r++) {
+            if (weight[r] > 0) {
+                int len = 0;
+                for (int x = r; x != root; x = parent[x]) {
+                    len++;
+                }
+                lengths[r] = len;
+            }
+        }
+        return lengths;
+    }
+
+    // canonical codes: shorter codes first, ties broken by symbol
+    static int[] canonicalCodes(int[] lengths) {
+        int[] count = new int[MAX_CODE_LENGTH + 1];
+        for (int len : lengths) {
+            count[len]++;
+        }
+        count[0] = 0;
+
+        int[] next = new int[MAX_CODE_LENGTH + 1];
+        int code = 0;
+        for (int len = 1; len <= MAX_CODE_LENGTH; len++) {
+            code = (code + count[len - 1]) << 1;
+            next[len] = code;
+        }
+
+        int[] codes = new int[lengths.length];
+        for (int r = 0; r < lengths.length; r++) {
+            if (lengths[r] > 0) {
+                codes[r] = next[lengths[r]]++;
+            }
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A fixed length array of ints, either on the heap or off heap, so the suffix
+ * sort is written once for both. Off heap, the ints are spread over direct
+ * buffers of at most 2^27 ints (512 MB) each, since a single buffer cannot
+ * hold more than 2 GB, and the buffers can be given back to their arena as soon
+ * as the array is no longer needed.
+ *
+ * An array can also be a read only view of a text repeated twice, ints on the
+ * heap or unsigned bytes off heap, so the doubled text the circular sort needs
+ * is never copied. One final class rather than a subclass per storage keeps
+ * get() and set() inlined in the sort loops; which storage is used is a branch
+ * the processor predicts.
+ */
+final class IntArray {
+    private static final int CHUNK_BITS = 27;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    final int length;
+    // exactly one of the four holds the ints: an array on the heap, chunks off
+    // heap, or the text of a view
+    private final int[] ints;
+    private final IntBuffer[] chunks;
+    private final int[] textInts;
+    private final ByteBuffer textBytes;
+    // index i of a view reads the text at i - period from period on
+    private final int period;
+    // the direct buffers behind chunks, and their arena
+    private final ByteBuffer[] buffers;
+    private final OffHeapArena arena;
+
+    private IntArray(int length, int[] ints, int[] textInts, ByteBuffer textBytes, int period, OffHeapArena arena) {
+        this.length = length;
+        this.ints = ints;
+        this.textInts = textInts;
+        this.textBytes = textBytes;
+        this.period = period;
+        this.arena = arena;
+        if (arena == null) {
+            this.chunks = null;
+            this.buffers = null;
+            return;
+        }
+
+        int count = (int) (((long) length + CHUNK_MASK) >>> CHUNK_BITS);
+        this.chunks = new IntBuffer[count];
+        this.buffers = new ByteBuffer[count];
+        for (int c = 0; c < count; c++) {
+            int n = Math.min(CHUNK_MASK + 1, length - (c << CHUNK_BITS));
+            buffers[c] = arena.allocateBytes(n * Integer.BYTES);
+            chunks[c] = buffers[c].asIntBuffer();
+        }
+    }
+
+    // a zeroed array of n ints, on the heap if arena is null, else off heap
+    static IntArray allocate(int n, OffHeapArena arena) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        return arena == null ? new IntArray(n, new int[n], null, null, 0, null)
+                : new IntArray(n, null, null, null, 0, arena);
+    }
+
+    // text+text, read only
+    static IntArray doubled(int[] text) {
+        return new IntArray(2 * text.length, null, text, null, text.length, null);
+    }
+
+    // block[0..n)+block[0..n) as unsigned bytes, read only
+    static IntArray doubled(ByteBuffer block, int n) {
+        return new IntArray(2 * n, null, null, block, n, null);
+    }
+
+    int get(int i) {
+        // plain arrays first, so their reads skip the view's index arithmetic
+        if (ints != null) {
+            return ints[i];
+        }
+        if (chunks != null) {
+            return chunks[i >>> CHUNK_BITS].get(i & CHUNK_MASK);
+        }
+        if (i >= period) {
+            i -= period;
+        }
+        return textInts != null ? textInts[i] : textBytes.get(i) & 0xff;
+    }
+
+    void set(int i, int value) {
+        if (ints != null) {
+            ints[i] = value;
+        } else if (chunks != null) {
+            chunks[i >>> CHUNK_BITS].put(i & CHUNK_MASK, value);
+        } else {
+            throw new UnsupportedOperationException("read only view");
+        }
+    }
+
+    void fill(int value) {
+        if (ints != null) {
+            Arrays.fill(ints, value);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            set(i, value);
+        }
+    }
+
+    // give the memory back before the arena closes, a no-op on the heap
+    void release() {
+        if (buffers == null) {
+            return;
+        }
+        for (int c = 0; c < buffers.length; c++) {
+            if (buffers[c] != null) {
+                arena.release(buffers[c]);
+                buffers[c] = null;
+                chunks[c] = null;
+            }
+        }
+    }
+}
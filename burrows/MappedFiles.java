@@ -0,0 +1,53 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory mapped file access for the file modes of the burrows tools. The
+ * buffers are big-endian, the same byte order as BinaryStdIn and BinaryStdOut.
+ */
+final class MappedFiles {
+    // bytes moved per bulk transfer between a mapped buffer and the heap
+    static final int CHUNK_SIZE = 1 << 16;
+
+    // map the whole file read only
+    static MappedByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkSize(channel.size());
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // create (or truncate) the file with the given size and map it read write
+    static MappedByteBuffer write(Path path, long size) throws IOException {
+        checkSize(size);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // in and out must be different files, truncating out while in is mapped
+    // would cut the input short
+    static void checkDistinct(Path in, Path out) throws IOException {
+        if (Files.exists(out) && Files.isSameFile(in, out)) {
+            throw new IllegalArgumentException("input and output are the same file: " + in);
+        }
+    }
+
+    private static void checkSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("file too large to map: " + size + " bytes");
+        }
+    }
+}
@@ -5,6 +5,13 @@
  * Assignment: Boggle, Grade 87/100, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 import edu.princeton.cs.algs4.BinaryStdIn;
 import edu.princeton.cs.algs4.BinaryStdOut;
 
@@ -94,17 +101,178 @@ public class MoveToFront {
         BinaryStdOut.close();
     }
 
+    /**
+     * Apply move-to-front encoding, reading from file in and writing to file out
+     * through memory mapped buffers
+     */
+    public static void encode(Path in, Path out) throws IOException {
+        MappedFiles.checkDistinct(in, out);
+        MappedByteBuffer input = MappedFiles.read(in);
+        MappedByteBuffer output = MappedFiles.write(out, input.remaining());
+
+        encode(input, output);
+        output.force();
+    }
+
+    /**
+     * Apply move-to-front decoding, reading from file in and writing to file out
+     * through memory mapped buffers
+     */
+    public static void decode(Path in, Path out) throws IOException {
+        MappedFiles.checkDistinct(in, out);
+        MappedByteBuffer input = MappedFiles.read(in);
+        MappedByteBuffer output = MappedFiles.write(out, input.remaining());
+
+        decode(input, output);
+        output.force();
+    }
+
+    /**
+     * Move-to-front encoding of the remaining bytes of in into out. Heap buffers
+     * are coded in place through their backing arrays, direct buffers are moved
+     * through the heap one chunk at a time.
+     */
+    public static void encode(ByteBuffer in, ByteBuffer out) {
+        code(in, out, true);
+    }
+
+    /**
+     * Move-to-front decoding of the remaining bytes of in into out
+     */
+    public static void decode(ByteBuffer in, ByteBuffer out) {
+        code(in, out, false);
+    }
+
+    /**
+     * Move-to-front encoding of in[0..length) into out[0..length)
+     */
+    public static void encode(byte[] in, int length, byte[] out) {
+        encode(alphabet(), in, 0, length, out, 0);
+    }
+
+    /**
+     * Move-to-front decoding of in[0..length) into out[0..length)
+     */
+    public static void decode(byte[] in, int length, byte[] out) {
+        decode(alphabet(), in, 0, length, out, 0);
+    }
+
+    // the alphabet in its initial order
+    private static byte[] alphabet() {
+        byte[] symbols = new byte[SYMBOL_RADIUS];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = (byte) (SYMBOL_ZERO_INDEX + i);
+        }
+        return symbols;
+    }
+
+    private static void code(ByteBuffer in, ByteBuffer out, boolean encode) {
+        if (out.remaining() < in.remaining()) {
+            throw new IllegalArgumentException("output buffer too small");
+        }
+
+        byte[] symbols = alphabet();
+        if (in.hasArray() && out.hasArray()) {
+            int length = in.remaining();
+            if (encode) {
+                encode(symbols, in.array(), in.arrayOffset() + in.position(), length, out.array(),
+                        out.arrayOffset() + out.position());
+            } else {
+                decode(symbols, in.array(), in.arrayOffset() + in.position(), length, out.array(),
+                        out.arrayOffset() + out.position());
+            }
+            in.position(in.position() + length);
+            out.position(out.position() + length);
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(MappedFiles.CHUNK_SIZE, in.remaining())];
+        byte[] coded = new byte[chunk.length];
+        while (in.hasRemaining()) {
+            int length = Math.min(chunk.length, in.remaining());
+            in.get(chunk, 0, length);
+            if (encode) {
+                encode(symbols, chunk, 0, length, coded, 0);
+            } else {
+                decode(symbols, chunk, 0, length, coded, 0);
+            }
+            out.put(coded, 0, length);
+        }
+    }
+
+    // move-to-front encoding of in[inOffset..inOffset+length), continuing from the
+    // alphabet order in symbols
+    private static void encode(byte[] symbols, byte[] in, int inOffset, int length, byte[] out, int outOffset) {
+        byte front = symbols[0];
+        for (int j = 0; j < length; j++) {
+            byte symbol = in[inOffset + j];
+
+            // BWT output is mostly runs, so the symbol is usually in front already
+            if (symbol == front) {
+                out[outOffset + j] = 0;
+                continue;
+            }
+
+            // find the index of current symbol
+            int symbolIndex = 1;
+            while (symbols[symbolIndex] != symbol) {
+                symbolIndex++;
+            }
+            out[outOffset + j] = (byte) symbolIndex;
+
+            // move the symbol to the front
+            System.arraycopy(symbols, 0, symbols, 1, symbolIndex);
+            symbols[0] = symbol;
+            front = symbol;
+        }
+    }
+
+    // move-to-front decoding of in[inOffset..inOffset+length), continuing from the
+    // alphabet order in symbols
+    private static void decode(byte[] symbols, byte[] in, int inOffset, int length, byte[] out, int outOffset) {
+        for (int j = 0; j < length; j++) {
+            int symbolIndex = in[inOffset + j] & 0xff;
+            byte decodedSymbol = symbols[symbolIndex];
+            out[outOffset + j] = decodedSymbol;
+
+            // index 0 leaves the alphabet as it is, index 1 is a swap
+            if (symbolIndex == 1) {
+                symbols[1] = symbols[0];
+                symbols[0] = decodedSymbol;
+            } else if (symbolIndex > 1) {
+                // move the symbol related to symbolIndex to the front
+                System.arraycopy(symbols, 0, symbols, 1, symbolIndex);
+                symbols[0] = decodedSymbol;
+            }
+        }
+    }
+
     // if args[0] is "-", apply move-to-front encoding
     // if args[0] is "+", apply move-to-front decoding
+    // if args[1] and args[2] are given, read from file args[1] and write to file
+    // args[2] instead of standard input and output
     public static void main(String[] args) {
         String cmd = args[0];
+        boolean files = args.length > 2;
 
-        if (cmd.equalsIgnoreCase("-")) {
-            encode();
-        } else if (cmd.equalsIgnoreCase("+")) {
-            decode();
-        } else {
-            throw new IllegalArgumentException("unknown command");
+        try {
+            if (cmd.equalsIgnoreCase("-")) {
+                if (files) {
+                    encode(Paths.get(args[1]), Paths.get(args[2]));
+                } else {
+                    encode();
+                }
+            } else if (cmd.equalsIgnoreCase("+")) {
+                if (files) {
+                    decode(Paths.get(args[1]), Paths.get(args[2]));
+                } else {
+                    decode();
+                }
+            } else {
+                throw new IllegalArgumentException("unknown command");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
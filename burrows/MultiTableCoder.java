@@ -0,0 +1,310 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+/**
+ * Multi-table Huffman coding of a block of symbols in [0, radix), as in bzip2.
+ * The symbols are cut into groups of GROUP_SIZE and each group is coded with
+ * whichever of up to MAX_TABLES code tables is cheapest for it; the tables are
+ * refined over a few passes of choosing tables and rebuilding them from the
+ * groups that chose them. Decoding looks codes of up to LOOKUP_BITS bits up in
+ * a single table access per symbol.
+ * 
+ * The coding is: 3 bits table count, the table selector of each group
+ * (move-to-front, then unary coded), the code lengths of each table (delta
+ * coded), then the codes.
+ */
+final class MultiTableCoder {
+    static final int GROUP_SIZE = 50;
+    static final int MAX_TABLES = 6;
+    private static final int ITERATIONS = 4;
+    private static final int LOOKUP_BITS = 10;
+    private static final int LENGTH_BITS = 5;
+    private static final int TABLE_COUNT_BITS = 3;
+    // initial costs, cheap inside a table's share of the alphabet, dear outside
+    private static final int LESSER_COST = 0;
+    private static final int GREATER_COST = 15;
+    // cost of a symbol a table has no code for
+    private static final int MISSING_COST = 32;
+
+    /**
+     * Encode symbols[0..n)
+     */
+    static void encode(int[] symbols, int n, int radix, BitWriter out) {
+        if (n == 0) {
+            return;
+        }
+        int groups = (n + GROUP_SIZE - 1) / GROUP_SIZE;
+        int tables = tableCount(n);
+
+        int[] freq = new int[radix];
+        for (int i = 0; i < n; i++) {
+            freq[symbols[i]]++;
+        }
+
+        // start with each table covering an equal share of the symbol frequencies
+        int[][] cost = new int[tables][radix];
+        int remaining = n;
+        int start = 0;
+        for (int t = 0; t < tables; t++) {
+            int target = remaining / (tables - t);
+            int end = start;
+            int share = 0;
+            while (end < radix && (share < target || t == tables - 1)) {
+                share += freq[end++];
+            }
+            for (int r = 0; r < radix; r++) {
+                cost[t][r] = (r >= start && r < end) ? LESSER_COST : GREATER_COST;
+            }
+            remaining -= share;
+            start = end;
+        }
+
+        // pick the cheapest table per group, then rebuild each table from the
+        // groups that picked it
+        int[] selectors = new int[groups];
+        int[][] lengths = new int[tables][];
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            int[][] tableFreq = new int[tables][radix];
+            for (int g = 0; g < groups; g++) {
+                int from = g * GROUP_SIZE;
+                int to = Math.min(n, from + GROUP_SIZE);
+
+                int best = 0;
+                int bestCost = Integer.MAX_VALUE;
+                for (int t = 0; t < tables; t++) {
+                    int groupCost = 0;
+                    for (int i = from; i < to; i++) {
+                        groupCost += cost[t][symbols[i]];
+                    }
+                    if (groupCost < bestCost) {
+                        bestCost = groupCost;
+                        best = t;
+                    }
+                }
+
+                selectors[g] = best;
+                for (int i = from; i < to; i++) {
+                    tableFreq[best][symbols[i]]++;
+                }
+            }
+
+            for (int t = 0; t < tables; t++) {
+                lengths[t] = HuffmanCoder.codeLengths(tableFreq[t]);
+                for (int r = 0; r < radix; r++) {
+                    cost[t][r] = lengths[t][r] > 0 ? lengths[t][r] : MISSING_COST;
+                }
+            }
+        }
+
+        // table count and selectors
+        out.write(tables, TABLE_COUNT_BITS);
+        int[] order = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            order[t] = t;
+        }
+        for (int g = 0; g < groups; g++) {
+            int j = 0;
+            while (order[j] != selectors[g]) {
+                j++;
+            }
+            System.arraycopy(order, 0, order, 1, j);
+            order[0] = selectors[g];
+            for (int k = 0; k < j; k++) {
+                out.write(true);
+            }
+            out.write(false);
+        }
+
+        // code lengths, each as a delta from the previous one
+        for (int t = 0; t < tables; t++) {
+            int current = lengths[t][0];
+            out.write(current, LENGTH_BITS);
+            for (int r = 0; r < radix; r++) {
+                while (current < lengths[t][r]) {
+                    out.write(0b10, 2);
+                    current++;
+                }
+                while (current > lengths[t][r]) {
+                    out.write(0b11, 2);
+                    current--;
+                }
+                out.write(false);
+            }
+        }
+
+        // codes
+        int[][] codes = new int[tables][];
+        for (int t = 0; t < tables; t++) {
+            codes[t] = HuffmanCoder.canonicalCodes(lengths[t]);
+        }
+        for (int g = 0; g < groups; g++) {
+            int[] code = codes[selectors[g]];
+            int[] length = lengths[selectors[g]];
+            int to = Math.min(n, (g + 1) * GROUP_SIZE);
+            for (int i = g * GROUP_SIZE; i < to; i++) {
+                out.write(code[symbols[i]], length[symbols[i]]);
+            }
+        }
+    }
+
+    /**
+     * Decode n symbols into symbols[0..n)
+     */
+    static void decode(BitReader in, int radix, int[] symbols, int n) {
+        if (n == 0) {
+            return;
+        }
+        int groups = (n + GROUP_SIZE - 1) / GROUP_SIZE;
+
+        int tables = in.read(TABLE_COUNT_BITS);
+        if (tables < 1 || tables > MAX_TABLES) {
+            throw new IllegalArgumentException("corrupt table count");
+        }
+
+        int[] selectors = new int[groups];
+        int[] order = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            order[t] = t;
+        }
+        for (int g = 0; g < groups; g++) {
+            int j = 0;
+            while (in.readBoolean()) {
+                if (++j >= tables) {
+                    throw new IllegalArgumentException("corrupt table selector");
+                }
+            }
+            int selector = order[j];
+            System.arraycopy(order, 0, order, 1, j);
+            order[0] = selector;
+            selectors[g] = selector;
+        }
+
+        Table[] decoders = new Table[tables];
+        for (int t = 0; t < tables; t++) {
+            int[] lengths = new int[radix];
+            int current = in.read(LENGTH_BITS);
+            for (int r = 0; r < radix; r++) {
+                while (in.readBoolean()) {
+                    current += in.readBoolean() ? -1 : 1;
+                    if (current < 0 || current > HuffmanCoder.MAX_CODE_LENGTH) {
+                        throw new IllegalArgumentException("corrupt code length");
+                    }
+                }
+                lengths[r] = current;
+            }
+            decoders[t] = new Table(lengths);
+        }
+
+        for (int g = 0; g < groups; g++) {
+            Table table = decoders[selectors[g]];
+            int to = Math.min(n, (g + 1) * GROUP_SIZE);
+            for (int i = g * GROUP_SIZE; i < to; i++) {
+                symbols[i] = table.decode(in);
+            }
+        }
+    }
+
+    // fewer, cheaper to describe tables for short blocks
+    private static int tableCount(int n) {
+        if (n < 200) {
+            return 2;
+        }
+        if (n < 600) {
+            return 3;
+        }
+        if (n < 1200) {
+            return 4;
+        }
+        if (n < 2400) {
+            return 5;
+        }
+        return MAX_TABLES;
+    }
+
+    /**
+     * Decoding table of one canonical code: codes of up to LOOKUP_BITS bits are
+     * resolved by one lookup of the next LOOKUP_BITS bits, longer ones by walking
+     * the code lengths above LOOKUP_BITS.
+     */
+    private static final class Table {
+        private static final int MAX = HuffmanCoder.MAX_CODE_LENGTH;
+
+        // symbol << 8 | code length, 0 when the code is longer than LOOKUP_BITS
+        private final int[] lookup = new int[1 << LOOKUP_BITS];
+        private final int[] count = new int[MAX + 1];
+        private final int[] firstCode = new int[MAX + 1];
+        private final int[] offset = new int[MAX + 1];
+        private final int[] sorted;
+
+        Table(int[] lengths) {
+            // the lengths come from the stream: each must fit the tables, and
+            // together they must not claim more codes than there are (Kraft)
+            long kraft = 0;
+            for (int r = 0; r < lengths.length; r++) {
+                if (lengths[r] < 0 || lengths[r] > MAX) {
+                    throw new IllegalArgumentException("corrupt code length");
+                }
+                if (lengths[r] > 0) {
+                    kraft += 1L << (MAX - lengths[r]);
+                }
+            }
+            if (kraft > 1L << MAX) {
+                throw new IllegalArgumentException("corrupt code lengths, over-subscribed");
+            }
+
+            int[] codes = HuffmanCoder.canonicalCodes(lengths);
+            for (int r = 0; r < lengths.length; r++) {
+                count[lengths[r]]++;
+            }
+            count[0] = 0;
+
+            // symbols sorted by (length, symbol), in canonical code order
+            int[] next = new int[MAX + 2];
+            for (int len = 1; len <= MAX; len++) {
+                next[len + 1] = next[len] + count[len];
+                offset[len] = next[len];
+            }
+            sorted = new int[next[MAX + 1]];
+            for (int r = 0; r < lengths.length; r++) {
+                int len = lengths[r];
+                if (len == 0) {
+                    continue;
+                }
+                if (next[len] == offset[len]) {
+                    firstCode[len] = codes[r];
+                }
+                sorted[next[len]++] = r;
+
+                if (len <= LOOKUP_BITS) {
+                    int shift = LOOKUP_BITS - len;
+                    int from = codes[r] << shift;
+                    for (int k = 0; k < (1 << shift); k++) {
+                        lookup[from + k] = r << 8 | len;
+                    }
+                }
+            }
+        }
+
+        int decode(BitReader in) {
+            int entry = lookup[in.peek(LOOKUP_BITS)];
+            if (entry != 0) {
+                in.skip(entry & 0xff);
+                return entry >>> 8;
+            }
+
+            int bits = in.peek(MAX);
+            for (int len = LOOKUP_BITS + 1; len <= MAX; len++) {
+                int code = bits >>> (MAX - len);
+                if (code >= firstCode[len] && code - firstCode[len] < count[len]) {
+                    in.skip(len);
+                    return sorted[offset[len] + code - firstCode[len]];
+                }
+            }
+            throw new IllegalArgumentException("corrupt code");
+        }
+    }
+}
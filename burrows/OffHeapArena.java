@@ -0,0 +1,116 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Direct (off-heap) working buffers with a deterministic release: closing the
+ * arena frees the native memory of every buffer it handed out, instead of
+ * waiting for the garbage collector to find them. The buffers must not be used
+ * after the arena is closed.
+ * 
+ * Freeing goes through sun.misc.Unsafe.invokeCleaner; where it is not
+ * available, closing only drops the references and the memory goes back on
+ * the next collection.
+ */
+public class OffHeapArena implements AutoCloseable {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private boolean closed;
+
+    // direct buffer of n bytes, zeroed
+    public ByteBuffer allocateBytes(int n) {
+        if (closed) {
+            throw new IllegalStateException("arena closed");
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(n).order(ByteOrder.nativeOrder());
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    // direct buffer of n ints, zeroed; one buffer holds less than 2^29 ints,
+    // IntArray chunks larger arrays
+    public IntBuffer allocateInts(int n) {
+        if (n < 0 || n > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalArgumentException("cannot allocate " + n + " ints");
+        }
+        return allocateBytes(n * Integer.BYTES).asIntBuffer();
+    }
+
+    // free buffer, handed out by this arena, before the arena closes
+    public void release(ByteBuffer buffer) {
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            // by identity, equals() compares the contents
+            if (buffers.get(i) == buffer) {
+                buffers.remove(i);
+                free(buffer);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("not a buffer of this arena");
+    }
+
+    // bytes handed out and not yet released
+    long allocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer buffer : buffers) {
+            bytes += buffer.capacity();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuffer buffer : buffers) {
+            free(buffer);
+        }
+        buffers.clear();
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // left to the garbage collector
+        }
+    }
+}
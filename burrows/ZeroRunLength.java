@@ -0,0 +1,100 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+/**
+ * Zero run-length coding of move-to-front output, as in bzip2. A run of zeros
+ * is written as its length in bijective base 2, least significant digit first,
+ * with the digits RUNA (1) and RUNB (2); every other move-to-front index v is
+ * written as v + 1.
+ * 
+ * e.g. 0 0 0 5 0 0 => RUNA RUNA 6 RUNB
+ */
+final class ZeroRunLength {
+    static final int RUNA = 0;
+    static final int RUNB = 1;
+    static final int RADIX = 256 + 1; // RUNA, RUNB, indices 1..255 shifted by one
+
+    /**
+     * Zero run-length encoding of mtf[0..length) into symbols
+     * 
+     * @param symbols receives the symbols, needs room for length entries
+     * @return the number of symbols written
+     */
+    static int encode(byte[] mtf, int length, int[] symbols) {
+        int n = 0;
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            int index = mtf[i] & 0xff;
+            if (index == 0) {
+                run++;
+                continue;
+            }
+            n = writeRun(run, symbols, n);
+            run = 0;
+            symbols[n++] = index + 1;
+        }
+        return writeRun(run, symbols, n);
+    }
+
+    /**
+     * Zero run-length decoding of symbols[0..n) into mtf[0..length)
+     * 
+     * @throws IllegalArgumentException if the symbols do not decode to exactly
+     *                                  length bytes
+     */
+    static void decode(int[] symbols, int n, byte[] mtf, int length) {
+        int j = 0;
+        int run = 0;
+        int weight = 1;
+        for (int i = 0; i < n; i++) {
+            int symbol = symbols[i];
+            if (symbol == RUNA || symbol == RUNB) {
+                // digits are 1 (RUNA) and 2 (RUNB), the weight doubles per digit
+                run += (symbol == RUNA ? 1 : 2) * weight;
+                weight <<= 1;
+                if (run > length - j) {
+                    throw new IllegalArgumentException("zero run overflows the block");
+                }
+                continue;
+            }
+
+            j = fillRun(mtf, j, run);
+            run = 0;
+            weight = 1;
+            if (j >= length) {
+                throw new IllegalArgumentException("symbols overflow the block");
+            }
+            mtf[j++] = (byte) (symbol - 1);
+        }
+        j = fillRun(mtf, j, run);
+
+        if (j != length) {
+            throw new IllegalArgumentException("symbols do not fill the block");
+        }
+    }
+
+    private static int writeRun(int run, int[] symbols, int n) {
+        if (run == 0) {
+            return n;
+        }
+        run--;
+        while (true) {
+            symbols[n++] = (run & 1) == 1 ? RUNB : RUNA;
+            if (run < 2) {
+                return n;
+            }
+            run = (run - 2) / 2;
+        }
+    }
+
+    private static int fillRun(byte[] mtf, int j, int run) {
+        for (int k = 0; k < run; k++) {
+            mtf[j++] = 0;
+        }
+        return j;
+    }
+}
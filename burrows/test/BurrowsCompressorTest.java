@@ -0,0 +1,193 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Round trips through every stage of the compressor: the Burrows-Wheeler
+ * transform on the heap and off heap, the block codec with its sequential and
+ * parallel inverse, the in-memory, streaming and random access APIs, and checks
+ * that damaged frames are rejected. Compiled with the burrows sources and run
+ * with java BurrowsCompressorTest; throws AssertionError on the first failure.
+ */
+public class BurrowsCompressorTest {
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(2);
+
+        for (byte[] data : corpora(random)) {
+            checkTransform(data);
+            checkCodec(data);
+            // tiny blocks only on short inputs, each block costs a frame
+            for (int blockSize : data.length <= 5_000 ? new int[] { 1, 7, 1000 } : new int[] { 1000, 1 << 17 }) {
+                checkCompressor(data, blockSize);
+            }
+        }
+        checkStreams(BurrowsBenchmark.corpus("text", 300_000));
+        checkArchive(random, BurrowsBenchmark.corpus("binary", 200_000));
+        checkCorruption(BurrowsBenchmark.corpus("text", 5_000));
+
+        StdOut.println("BurrowsCompressorTest passed");
+    }
+
+    // degenerate, periodic and generated blocks, some longer than a restart interval
+    private static byte[][] corpora(Random random) {
+        byte[] noise = new byte[3_000];
+        random.nextBytes(noise);
+        return new byte[][] { //
+                new byte[0], //
+                { 42 }, //
+                { 0, (byte) 255 }, //
+                new byte[5_000], //
+                repeat("ab".getBytes(), 2_001), //
+                repeat("abracadabra".getBytes(), 300), //
+                noise, //
+                BurrowsBenchmark.corpus("random", 70_000), //
+                BurrowsBenchmark.corpus("text", 150_000), //
+                BurrowsBenchmark.corpus("repetitive", 140_000), //
+                BurrowsBenchmark.corpus("binary", 66_000), //
+        };
+    }
+
+    // transform and inverse, on byte arrays and on direct buffers
+    private static void checkTransform(byte[] data) {
+        int n = data.length;
+        byte[] bws = new byte[n];
+        byte[] out = new byte[n];
+        int first = BurrowsWheeler.transform(data, n, bws);
+        if (n > 0) {
+            BurrowsWheeler.inverseTransform(first, bws, n, out, new int[n]);
+            assertEquals(data, out, "heap inverse transform");
+        }
+
+        ByteBuffer block = ByteBuffer.allocateDirect(n);
+        block.put(data).flip();
+        ByteBuffer last = ByteBuffer.allocateDirect(n);
+        if (BurrowsWheeler.transform(block, last) != (n == 0 ? -1 : first)) {
+            throw new AssertionError("off heap transform gives another first index");
+        }
+        byte[] offHeap = new byte[n];
+        last.get(offHeap);
+        assertEquals(bws, offHeap, "off heap transform");
+
+        ByteBuffer original = ByteBuffer.allocateDirect(n);
+        last.flip();
+        BurrowsWheeler.inverseTransform(first, last, original);
+        byte[] restored = new byte[n];
+        original.get(restored);
+        assertEquals(data, restored, "off heap inverse transform");
+    }
+
+    // one frame, decoded with the sequential and the parallel inverse
+    private static void checkCodec(byte[] data) {
+        if (data.length == 0) {
+            return;
+        }
+        ByteBuffer frame = ByteBuffer.wrap(BurrowsCompressor.encodeBlock(data, data.length));
+        int length = frame.getInt();
+        int first = frame.getInt();
+        int payloadLength = frame.getInt();
+        int checksum = frame.getInt();
+        byte[] payload = Arrays.copyOfRange(frame.array(), BlockCodec.HEADER_LENGTH,
+                BlockCodec.HEADER_LENGTH + payloadLength);
+
+        assertEquals(data, BurrowsCompressor.decodeBlock(length, first, checksum, payload), "sequential decode");
+        byte[] parallel = new BlockCodec(true).decode(length, first, checksum, payload, payloadLength);
+        assertEquals(data, Arrays.copyOf(parallel, length), "parallel decode");
+    }
+
+    private static void checkCompressor(byte[] data, int blockSize) {
+        byte[] compressed = BurrowsCompressor.compress(data, blockSize);
+        assertEquals(data, BurrowsCompressor.decompress(compressed), "in memory round trip, block size " + blockSize);
+    }
+
+    private static void checkStreams(byte[] data) throws IOException {
+        for (int threads : new int[] { 1, 3 }) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            BurrowsCompressor.compress(new ByteArrayInputStream(data), compressed, 1 << 16, threads);
+            ByteArrayOutputStream restored = new ByteArrayOutputStream();
+            BurrowsCompressor.decompress(new ByteArrayInputStream(compressed.toByteArray()), restored, threads);
+            assertEquals(data, restored.toByteArray(), "stream round trip, " + threads + " threads");
+            assertEquals(data, BurrowsCompressor.decompress(compressed.toByteArray()), "input stream round trip");
+        }
+    }
+
+    // random reads of a compressed file, some straddling blocks
+    private static void checkArchive(Random random, byte[] data) throws IOException {
+        Path file = Files.createTempFile("burrows", ".bwz");
+        try {
+            Files.write(file, BurrowsCompressor.compress(data, 10_000));
+            try (BurrowsArchive archive = BurrowsArchive.open(file)) {
+                if (archive.length() != data.length || archive.blockCount() != 20) {
+                    throw new AssertionError("archive of " + archive.length() + " bytes, " + archive.blockCount()
+                            + " blocks");
+                }
+                for (int i = 0; i < 100; i++) {
+                    int from = random.nextInt(data.length);
+                    int length = random.nextInt(Math.min(30_000, data.length - from) + 1);
+                    assertEquals(Arrays.copyOfRange(data, from, from + length), archive.read(from, length),
+                            "archive read of [" + from + ", " + (from + length) + ")");
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // a damaged header field or payload byte fails the checksum
+    private static void checkCorruption(byte[] data) {
+        byte[] frame = BurrowsCompressor.encodeBlock(data, data.length);
+        ByteBuffer header = ByteBuffer.wrap(frame);
+        int length = header.getInt();
+        int first = header.getInt();
+        int payloadLength = header.getInt();
+        int checksum = header.getInt();
+        byte[] payload = Arrays.copyOfRange(frame, BlockCodec.HEADER_LENGTH, BlockCodec.HEADER_LENGTH + payloadLength);
+
+        expectRejected(length, (first + 7) % length, checksum, payload, "shifted first index");
+        expectRejected(length - 1, first, checksum, payload, "shortened length");
+        expectRejected(length, first, checksum ^ 1, payload, "damaged checksum");
+        for (int i = 0; i < payload.length; i += 97) {
+            byte[] damaged = payload.clone();
+            damaged[i] ^= 0x10;
+            expectRejected(length, first, checksum, damaged, "damaged payload byte " + i);
+        }
+    }
+
+    private static void expectRejected(int length, int first, int checksum, byte[] payload, String what) {
+        try {
+            BurrowsCompressor.decodeBlock(length, first, checksum, payload);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError(what + " was decoded");
+    }
+
+    private static byte[] repeat(byte[] unit, int times) {
+        byte[] bytes = new byte[unit.length * times];
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(unit, 0, bytes, i * unit.length, unit.length);
+        }
+        return bytes;
+    }
+
+    private static void assertEquals(byte[] expected, byte[] actual, String what) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(what + ": " + actual.length + " bytes differ from the expected "
+                    + expected.length);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks the SA-IS circular suffix sort, on the heap and off heap, against a
+ * naive sort of the rotations, on random, periodic and degenerate texts.
+ * Compiled with the burrows sources and run with java CircularSuffixArrayTest;
+ * throws AssertionError on the first failure.
+ */
+public class CircularSuffixArrayTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+
+        // degenerate and periodic texts, whose rotations repeat
+        check("");
+        check("A");
+        check("AB");
+        check("BA");
+        check("AAAAAAAA");
+        check("ABABABAB");
+        check("ABCABCABCABC");
+        check("ABRACADABRA!");
+        check("ABRACADABRA!ABRACADABRA!ABRACADABRA!");
+        check("MISSISSIPPIMISSISSIPPI");
+        for (int i = 0; i < 200; i++) {
+            String period = randomText(random, 1 + random.nextInt(6), 1 + random.nextInt(4));
+            StringBuilder text = new StringBuilder();
+            for (int k = 1 + random.nextInt(8); k > 0; k--) {
+                text.append(period);
+            }
+            check(text.toString());
+        }
+
+        // random texts over small and large alphabets
+        for (int i = 0; i < 500; i++) {
+            check(randomText(random, random.nextInt(300), 1 + random.nextInt(i % 2 == 0 ? 3 : 256)));
+        }
+
+        checkPublicApi();
+        StdOut.println("CircularSuffixArrayTest passed");
+    }
+
+    // sorts text on the heap and off heap and compares both with a naive sort
+    private static void check(String text) {
+        int n = text.length();
+        int[] symbols = new int[n];
+        ByteBuffer block = ByteBuffer.allocateDirect(n);
+        for (int i = 0; i < n; i++) {
+            symbols[i] = text.charAt(i);
+            block.put(i, (byte) text.charAt(i));
+        }
+
+        String[] expected = naive(text);
+        int[] heap = CircularSuffixArray.sortCircular(symbols, 255, null);
+        assertRotations(text, expected, heap, "heap");
+
+        try (OffHeapArena arena = new OffHeapArena()) {
+            IntArray offHeap = CircularSuffixArray.sortCircular(block, n, arena);
+            int[] rotations = new int[n];
+            for (int i = 0; i < n; i++) {
+                rotations[i] = offHeap.get(i);
+            }
+            assertRotations(text, expected, rotations, "off heap");
+            if (!Arrays.equals(heap, rotations)) {
+                throw new AssertionError("heap and off heap sorts differ on \"" + text + "\"");
+            }
+            // every working array was released, the rotations are all that is left
+            if (arena.allocatedBytes() != (long) n * Integer.BYTES) {
+                throw new AssertionError("working arrays left in the arena: " + arena.allocatedBytes() + " bytes");
+            }
+        }
+    }
+
+    // the rotations given by indices, in order, are the expected rotations
+    private static void assertRotations(String text, String[] expected, int[] indices, String what) {
+        if (indices.length != expected.length) {
+            throw new AssertionError(what + ": " + indices.length + " rotations of \"" + text + "\"");
+        }
+        boolean[] seen = new boolean[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (index < 0 || index >= indices.length || seen[index]) {
+                throw new AssertionError(what + ": not a permutation on \"" + text + "\"");
+            }
+            seen[index] = true;
+            String rotation = text.substring(index) + text.substring(0, index);
+            if (!rotation.equals(expected[i])) {
+                throw new AssertionError(what + ": rotation " + i + " of \"" + text + "\" is \"" + rotation
+                        + "\", expected \"" + expected[i] + "\"");
+            }
+        }
+    }
+
+    // equal rotations, in periodic texts, may come in any order, so the oracle
+    // gives the rotations themselves rather than their indices
+    private static String[] naive(String text) {
+        int n = text.length();
+        String[] rotations = new String[n];
+        for (int i = 0; i < n; i++) {
+            rotations[i] = text.substring(i) + text.substring(0, i);
+        }
+        Arrays.sort(rotations);
+        return rotations;
+    }
+
+    private static void checkPublicApi() {
+        CircularSuffixArray suffices = new CircularSuffixArray("ABRACADABRA!");
+        int[] expected = { 11, 10, 7, 0, 3, 5, 8, 1, 4, 6, 9, 2 };
+        if (suffices.length() != expected.length) {
+            throw new AssertionError("length " + suffices.length());
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (suffices.index(i) != expected[i]) {
+                throw new AssertionError("index(" + i + ") = " + suffices.index(i) + ", expected " + expected[i]);
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length, int alphabet) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) ('!' + random.nextInt(Math.min(alphabet, 256 - '!')));
+        }
+        return new String(text);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * @author: Adrian Popa, adrian.popa.box@gmail.com, adrian.popa@aepeak.com
+ * 
+ * Coursera, Algorithms, Part II, Princeton
+ * Assignment: Burrows-Wheeler, https://coursera.cs.princeton.edu/algs4/assignments/burrows/specification.php
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Checks FMIndex count, locate and extract against a brute force scan of the
+ * text, on random, periodic and degenerate blocks, with patterns taken from
+ * the text, patterns wrapping around its end and random patterns, and on the
+ * per-block indexes of a compressed archive. Compiled with the burrows sources
+ * and run with java FMIndexTest; throws AssertionError on the first failure.
+ */
+public class FMIndexTest {
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(3);
+
+        // degenerate and periodic blocks, whose rotations repeat
+        check(random, "A".getBytes());
+        check(random, "AB".getBytes());
+        check(random, "AAAAAAAAAAAA".getBytes());
+        check(random, "ABRACADABRA!".getBytes());
+        check(random, "ABABABABABAB".getBytes());
+        check(random, "ABRACADABRA!ABRACADABRA!ABRACADABRA!".getBytes());
+        for (int i = 0; i < 100; i++) {
+            byte[] period = randomBytes(random, 1 + random.nextInt(5), 1 + random.nextInt(3));
+            byte[] text = new byte[period.length * (2 + random.nextInt(50))];
+            for (int p = 0; p < text.length; p += period.length) {
+                System.arraycopy(period, 0, text, p, period.length);
+            }
+            check(random, text);
+        }
+
+        // random blocks over small and large alphabets, past a few checkpoints
+        for (int i = 0; i < 100; i++) {
+            check(random, randomBytes(random, 1 + random.nextInt(2_000), 1 + random.nextInt(i % 2 == 0 ? 4 : 256)));
+        }
+        check(random, BurrowsBenchmark.corpus("text", 20_000));
+        // past a few superblocks of relative counts
+        check(random, BurrowsBenchmark.corpus("text", 200_000));
+        check(random, randomBytes(random, 150_000, 2));
+
+        checkArchive(random, BurrowsBenchmark.corpus("text", 50_000));
+        StdOut.println("FMIndexTest passed");
+    }
+
+    private static void check(Random random, byte[] text) {
+        FMIndex index = FMIndex.of(text);
+        int n = text.length;
+        if (index.length() != n) {
+            throw new AssertionError("length " + index.length() + ", expected " + n);
+        }
+        check(index, text, random);
+    }
+
+    private static void check(FMIndex index, byte[] text, Random random) {
+        int n = text.length;
+
+        for (int i = 0; i < 50; i++) {
+            byte[] pattern;
+            int kind = i % 4;
+            if (kind == 0) {
+                // a substring, found at least once
+                int from = random.nextInt(n);
+                pattern = Arrays.copyOfRange(text, from, from + 1 + random.nextInt(Math.min(12, n - from)));
+            } else if (kind == 1) {
+                // a pattern around the end of the block, which only the
+                // rotations contain
+                int m = 2 + random.nextInt(6);
+                pattern = new byte[m];
+                for (int j = 0; j < m; j++) {
+                    pattern[j] = text[Math.floorMod(n - m / 2 + j, n)];
+                }
+            } else if (kind == 2) {
+                pattern = randomBytes(random, 1 + random.nextInt(4), 4);
+            } else {
+                pattern = Arrays.copyOf(text, Math.min(n + 1, 1 + random.nextInt(n + 1)));
+            }
+
+            int[] expected = bruteForce(text, pattern);
+            if (index.count(pattern) != expected.length) {
+                throw new AssertionError("count of " + Arrays.toString(pattern) + " is " + index.count(pattern)
+                        + ", expected " + expected.length);
+            }
+            if (!Arrays.equals(index.locate(pattern), expected)) {
+                throw new AssertionError("locate of " + Arrays.toString(pattern) + " is "
+                        + Arrays.toString(index.locate(pattern)) + ", expected " + Arrays.toString(expected));
+            }
+        }
+
+        checkExtract(index, text, 0, n);
+        checkExtract(index, text, n, n);
+        for (int i = 0; i < 50; i++) {
+            int from = random.nextInt(n + 1);
+            checkExtract(index, text, from, from + random.nextInt(n - from + 1));
+        }
+    }
+
+    private static void checkExtract(FMIndex index, byte[] text, int from, int to) {
+        if (!Arrays.equals(index.extract(from, to), Arrays.copyOfRange(text, from, to))) {
+            throw new AssertionError("extract of [" + from + ", " + to + ") differs from the text");
+        }
+    }
+
+    // searches every block of a compressed file without decompressing it
+    private static void checkArchive(Random random, byte[] data) throws IOException {
+        Path file = Files.createTempFile("burrows", ".bwz");
+        try {
+            Files.write(file, BurrowsCompressor.compress(data, 8_000));
+            try (BurrowsArchive archive = BurrowsArchive.open(file)) {
+                for (int i = 0; i < archive.blockCount(); i++) {
+                    FMIndex index = archive.index(i);
+                    int from = i * 8_000;
+                    check(index, Arrays.copyOfRange(data, from, from + index.length()), random);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // ascending positions p with text[p..p + m) equal to pattern
+    private static int[] bruteForce(byte[] text, byte[] pattern) {
+        int[] positions = new int[text.length];
+        int found = 0;
+        for (int p = 0; p + pattern.length <= text.length; p++) {
+            if (Arrays.equals(text, p, p + pattern.length, pattern, 0, pattern.length)) {
+                positions[found++] = p;
+            }
+        }
+        return Arrays.copyOf(positions, found);
+    }
+
+    private static byte[] randomBytes(Random random, int length, int alphabet) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ('A' + random.nextInt(alphabet));
+        }
+        return bytes;
+    }
+}